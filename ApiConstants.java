@@ -15,15 +15,35 @@ public class ApiConstants {
     public static final String API_KEY_GENERATED = "API key generated successfully. Please store it securely as it won't be shown again.";
     public static final String API_KEY_REVOKED = "API key revoked successfully";
     public static final String API_KEY_ROTATED = "API key rotated successfully. Old key is now revoked.";
+    public static final String API_KEYS_REVOKED = "API keys revoked successfully";
+    public static final String QUOTA_UPDATED = "Service account quota updated successfully";
+    public static final String SCOPES_UPDATED = "Service account scopes updated successfully";
     public static final String TOKEN_VALID = "Token is valid";
 
     // Error Messages
     public static final String USERNAME_EXISTS = "Username already exists";
     public static final String EMAIL_EXISTS = "Email already exists";
+    public static final String USER_ALREADY_EXISTS = "Username or email already exists";
     public static final String INVALID_REFRESH_TOKEN = "Invalid refresh token";
     public static final String REFRESH_TOKEN_REVOKED = "Refresh token has been revoked";
     public static final String REFRESH_TOKEN_EXPIRED = "Refresh token has expired";
     public static final String SERVICE_ACCOUNT_NOT_FOUND = "Service account not found";
+    public static final String INVALID_SERVICE_CREDENTIALS = "Invalid service credentials";
+    public static final String SERVICE_ACCOUNT_INACTIVE = "Service account is inactive";
+    public static final String ROTATE_REVOKED_ACCOUNT =
+            "Service account is revoked; rotate with reactivate=true to restore it";
+    public static final String TOO_MANY_LOGIN_ATTEMPTS = "Too many login attempts. Please try again later.";
+    public static final String QUOTA_EXCEEDED = "Request quota exceeded. Please try again later.";
+    public static final String UNKNOWN_SCOPE = "Unknown scope";
+    public static final String ACCESS_DENIED = "Access denied";
+    public static final String AUTHENTICATION_UNAVAILABLE = "Authentication is temporarily unavailable. Please try again later.";
+
+    // Batch Limits
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    // Listing Limits
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
 
     // Validation Messages
     public static final String USERNAME_REQUIRED = "Username is required";
@@ -35,10 +55,23 @@ public class ApiConstants {
     public static final String SERVICE_NAME_REQUIRED = "Service name is required";
     public static final String DESCRIPTION_REQUIRED = "Description is required";
     public static final String REFRESH_TOKEN_REQUIRED = "Refresh token is required";
+    public static final String BATCH_REQUIRED = "At least one service account is required";
+    public static final String QUOTA_RATE_MIN = "Requests per second must be at least 1";
+    public static final String QUOTA_BURST_MIN = "Burst must be at least 1";
+    public static final String SCOPES_REQUIRED = "Scopes are required";
+    public static final String BATCH_TOO_LARGE = "At most " + MAX_BATCH_SIZE + " service accounts per request";
+    public static final String CREDENTIAL_BATCH_TOO_LARGE = "At most " + MAX_BATCH_SIZE + " credentials per request";
 
     // Cache Names
     public static final String API_KEY_CACHE = "apiKeys";
     public static final String USER_CACHE = "users";
+    public static final String SERVICE_LOGIN_CACHE = "serviceLogins";
+    public static final String SERVICE_QUOTA_CACHE = "serviceQuotas";
+    public static final String USER_SNAPSHOT_CACHE = "userSnapshots";
+    public static final String API_KEY_SNAPSHOT_CACHE = "apiKeySnapshots";
+    public static final String REFRESH_RESPONSE_CACHE = "refreshResponses";
+    // Bus channel whose keys are replica lag keys of writes with no cache of their own
+    public static final String REPLICA_WRITES = "replicaWrites";
 
     // Token Types
     public static final String TOKEN_TYPE_BEARER = "Bearer";
@@ -1,6 +1,13 @@
 package com.bank.capp.security;
 
 import com.bank.capp.constants.SecurityConstants;
+import com.bank.capp.exceptions.AuthFailure;
+import com.bank.capp.exceptions.ErrorResponses;
+import com.bank.capp.exceptions.LogRateLimiter;
+import com.bank.capp.jfr.AuthenticationFilterEvent;
+import com.bank.capp.metrics.AuthMetrics;
+import com.bank.capp.metrics.AuthMetrics.FilterOutcome;
+import com.bank.capp.models.PrincipalType;
 import com.bank.capp.services.ApiKeyService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -8,23 +15,31 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.time.Duration;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String FILTER_NAME = "api_key";
+    private static final WebAuthenticationDetailsSource DETAILS_SOURCE = new WebAuthenticationDetailsSource();
+    private static final Duration REJECTION_LOG_INTERVAL = Duration.ofSeconds(10);
+
     private final ApiKeyService apiKeyService;
+    private final AuthMetrics authMetrics;
+    private final ServiceQuotaLimiter serviceQuotaLimiter;
+    private final ErrorResponses errorResponses;
+    private final LogRateLimiter rejectionLog = new LogRateLimiter(REJECTION_LOG_INTERVAL);
 
     @Override
     protected void doFilterInternal(
@@ -41,29 +56,31 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
 
         final String apiKey = request.getHeader(SecurityConstants.API_KEY_HEADER);
 
+        boolean throttled = false;
         if (apiKey != null && !apiKey.isEmpty()) {
+            AuthenticationFilterEvent event = new AuthenticationFilterEvent();
+            event.begin();
+            long start = System.nanoTime();
+            FilterOutcome outcome = FilterOutcome.REJECTED;
             try {
                 // Validate API Key and get service details
                 var serviceAccount = apiKeyService.validateApiKey(apiKey);
 
                 if (serviceAccount != null && serviceAccount.isActive()) {
                     // Create authentication token for service account
-                    var authorities = Collections.singletonList(
-                            new SimpleGrantedAuthority(SecurityConstants.ROLE_SERVICE)
-                    );
+                    AuthenticatedPrincipal principal = AuthenticatedPrincipal.serviceAccount(serviceAccount);
 
                     UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    serviceAccount.getServiceName(),
+                            UsernamePasswordAuthenticationToken.authenticated(
+                                    principal,
                                     null,
-                                    authorities
+                                    principal.getAuthorities()
                             );
 
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
+                    authToken.setDetails(DETAILS_SOURCE.buildDetails(request));
 
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    outcome = FilterOutcome.AUTHENTICATED;
 
                     log.info("Service '{}' authenticated via API Key",
                             serviceAccount.getServiceName());
@@ -71,12 +88,42 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
                     // Add service name to request attribute for auditing
                     request.setAttribute("authenticatedService",
                             serviceAccount.getServiceName());
+
+                    if (!serviceQuotaLimiter.admit(serviceQuotaLimiter.quotaFor(serviceAccount), response)) {
+                        SecurityContextHolder.clearContext();
+                        throttled = true;
+                        outcome = FilterOutcome.THROTTLED;
+                    }
                 } else {
-                    log.warn("Invalid or inactive API key provided");
+                    long suppressed = rejectionLog.tryAcquire();
+                    if (suppressed >= 0) {
+                        log.warn("Invalid or inactive API key provided ({} more since last report)", suppressed);
+                    }
+                }
+            } catch (DataAccessException e) {
+                // Database degraded and no snapshot of the key; tell the client to retry
+                outcome = FilterOutcome.UNAVAILABLE;
+                long suppressed = rejectionLog.tryAcquire();
+                if (suppressed >= 0) {
+                    log.warn("API key authentication unavailable: {} ({} more since last report)",
+                            e.getMessage(), suppressed);
                 }
             } catch (Exception e) {
+                outcome = FilterOutcome.ERROR;
                 log.error("API Key authentication failed", e);
             }
+            authMetrics.recordFilter(PrincipalType.SERVICE_ACCOUNT, outcome, start);
+            event.complete(FILTER_NAME, outcome.name());
+
+            if (outcome == FilterOutcome.UNAVAILABLE) {
+                errorResponses.write(AuthFailure.AUTHENTICATION_UNAVAILABLE, response);
+                return;
+            }
+        }
+
+        // The 429 has been written; the request goes no further
+        if (throttled) {
+            return;
         }
 
         filterChain.doFilter(request, response);
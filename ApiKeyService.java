@@ -1,18 +1,36 @@
 package com.bank.capp.services;
 
 import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.datasource.ReplicaLagGuard;
+import com.bank.capp.jfr.ApiKeyValidationEvent;
+import com.bank.capp.models.ApiKeyGenerationRequest;
+import com.bank.capp.models.ApiKeyResponse;
+import com.bank.capp.models.PrincipalType;
+import com.bank.capp.models.Scope;
 import com.bank.capp.models.ServiceAccount;
 import com.bank.capp.repository.ServiceAccountRepository;
+import com.bank.capp.repository.TokenStore;
+import com.bank.capp.resilience.AuthLookupGuard;
+import com.bank.capp.security.ApiKeyHasher;
+import com.bank.capp.security.AuthenticatedPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -20,51 +38,73 @@ import java.util.Optional;
 public class ApiKeyService {
 
     private final ServiceAccountRepository serviceAccountRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final ApiKeyHasher apiKeyHasher;
+    private final TokenStore tokenStore;
+    private final CacheManager cacheManager;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final AuthLookupGuard authLookupGuard;
     private static final SecureRandom secureRandom = new SecureRandom();
     private static final int API_KEY_LENGTH = 32;
 
     /**
      * Validate API key and return associated service account
-     * Uses caching to reduce database hits for frequently used keys
+     * Uses caching keyed by the key hash to reduce database hits for frequently used keys;
+     * misses are read from a replica unless the key changed within the replica lag window,
+     * or from the last-known-good snapshot while the database is degraded
      */
-    @Cacheable(value = ApiConstants.API_KEY_CACHE, key = "#apiKey")
     public ServiceAccount validateApiKey(String apiKey) {
-        Optional<ServiceAccount> serviceAccountOpt =
-                serviceAccountRepository.findByApiKeyHash(hashApiKey(apiKey));
+        ApiKeyValidationEvent event = new ApiKeyValidationEvent();
+        event.begin();
+
+        String apiKeyHash = hashApiKey(apiKey);
+        Cache cache = cacheManager.getCache(ApiConstants.API_KEY_CACHE);
+
+        ServiceAccount cached = cache != null ? cache.get(apiKeyHash, ServiceAccount.class) : null;
+        if (cached != null) {
+            event.complete(true, true, 0);
+            return cached;
+        }
+
+        long dbStart = System.nanoTime();
+        // Keep snapshots out of the regular cache while degraded, so the node keeps retrying the database
+        Optional<ServiceAccount> serviceAccountOpt = authLookupGuard.lookup(ApiConstants.API_KEY_SNAPSHOT_CACHE,
+                apiKeyHash, () -> replicaLagGuard.read(ReplicaLagGuard.apiKeyKey(apiKeyHash),
+                        () -> serviceAccountRepository.findByApiKeyHash(apiKeyHash)),
+                fresh -> {
+                    if (cache != null) {
+                        cache.put(apiKeyHash, fresh);
+                    }
+                });
 
         if (serviceAccountOpt.isPresent()) {
             ServiceAccount account = serviceAccountOpt.get();
+            long dbTime = System.nanoTime() - dbStart;
 
-            // Update last used timestamp
-            account.setLastUsedAt(LocalDateTime.now());
-            serviceAccountRepository.save(account);
-
+            // Update last used timestamp off the request path; a merge of a replica read
+            // could overwrite newer primary state, and a degraded database must not block requests
+            LocalDateTime now = LocalDateTime.now();
+            Long accountId = account.getId();
+            authLookupGuard.bestEffort(() -> serviceAccountRepository.updateLastUsedAt(accountId, now));
+            event.complete(false, true, dbTime);
             return account;
         }
 
+        event.complete(false, false, System.nanoTime() - dbStart);
         return null;
     }
 
     /**
      * Generate a new API key for a service
      */
-    public String generateApiKey(String serviceName, String description) {
+    public String generateApiKey(String serviceName, String description, AuthenticatedPrincipal caller) {
         // Generate cryptographically secure random API key
-        byte[] randomBytes = new byte[API_KEY_LENGTH];
-        secureRandom.nextBytes(randomBytes);
-        String apiKey = Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
-
-        // Create service account
-        ServiceAccount serviceAccount = ServiceAccount.builder()
-                .serviceName(serviceName)
-                .description(description)
-                .apiKeyHash(hashApiKey(apiKey))
-                .active(true)
-                .createdAt(LocalDateTime.now())
-                .build();
+        String apiKey = newApiKeys(1)[0];
 
-        serviceAccountRepository.save(serviceAccount);
+        ServiceAccount account = newServiceAccount(serviceName, description, apiKey);
+        requireScopesHeldBy(caller, List.of(account));
+        account = serviceAccountRepository.save(account);
+        recordWrites(account, List.of(account.getApiKeyHash()));
 
         log.info("Generated new API key for service: {}", serviceName);
 
@@ -72,44 +112,265 @@ public class ApiKeyService {
         return apiKey;
     }
 
+    /**
+     * Generate API keys for many services in one transaction and one batched insert
+     */
+    @Transactional
+    public List<ApiKeyResponse> generateApiKeys(List<ApiKeyGenerationRequest> requests, AuthenticatedPrincipal caller) {
+        String[] apiKeys = newApiKeys(requests.size());
+
+        List<ServiceAccount> accounts = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ApiKeyGenerationRequest request = requests.get(i);
+            accounts.add(newServiceAccount(request.getServiceName(), request.getDescription(), apiKeys[i]));
+        }
+        requireScopesHeldBy(caller, accounts);
+        serviceAccountRepository.saveAll(accounts);
+        accounts.forEach(account -> recordWrites(account, List.of(account.getApiKeyHash())));
+
+        log.info("Generated API keys for {} services", accounts.size());
+
+        List<ApiKeyResponse> responses = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            responses.add(ApiKeyResponse.builder()
+                    .apiKey(apiKeys[i])
+                    .serviceName(requests.get(i).getServiceName())
+                    .build());
+        }
+        return responses;
+    }
+
     /**
      * Revoke an API key
      */
-    public void revokeApiKey(Long serviceAccountId) {
+    @Transactional
+    public void revokeApiKey(Long serviceAccountId, AuthenticatedPrincipal caller) {
         serviceAccountRepository.findById(serviceAccountId).ifPresent(account -> {
+            requireScopesHeldBy(caller, List.of(account));
             account.setActive(false);
             account.setRevokedAt(LocalDateTime.now());
             serviceAccountRepository.save(account);
+            recordWrites(account, List.of(account.getApiKeyHash()));
+            invalidateApiKeys(List.of(account.getApiKeyHash()));
+            invalidateServiceLogins(List.of(account.getServiceName()));
+            invalidateQuotas(List.of(account));
             log.info("Revoked API key for service: {}", account.getServiceName());
         });
     }
 
     /**
-     * Rotate API key (revoke old, generate new)
+     * Revoke API keys of many services with one bulk update
      */
-    public String rotateApiKey(Long serviceAccountId) {
-        Optional<ServiceAccount> accountOpt = serviceAccountRepository.findById(serviceAccountId);
+    @Transactional
+    public int revokeApiKeys(Collection<Long> serviceAccountIds, AuthenticatedPrincipal caller) {
+        List<ServiceAccount> accounts = serviceAccountRepository.findAllById(serviceAccountIds);
+        requireScopesHeldBy(caller, accounts);
+        List<String> apiKeyHashes = accounts.stream()
+                .map(ServiceAccount::getApiKeyHash)
+                .toList();
 
-        if (accountOpt.isPresent()) {
-            ServiceAccount account = accountOpt.get();
+        int revoked = serviceAccountRepository.revokeAllByIdIn(serviceAccountIds, LocalDateTime.now());
+        accounts.forEach(account -> recordWrites(account, List.of(account.getApiKeyHash())));
+        invalidateApiKeys(apiKeyHashes);
+        invalidateServiceLogins(accounts.stream().map(ServiceAccount::getServiceName).toList());
+        invalidateQuotas(accounts);
 
-            // Revoke old key
-            account.setActive(false);
-            account.setRevokedAt(LocalDateTime.now());
-            serviceAccountRepository.save(account);
+        log.info("Revoked API keys for {} services", revoked);
+        return revoked;
+    }
+
+    /**
+     * Rotate API key (replace the stored hash so the old key stops working)
+     */
+    @Transactional
+    public String rotateApiKey(Long serviceAccountId, boolean reactivate, AuthenticatedPrincipal caller) {
+        return rotateApiKeys(List.of(serviceAccountId), reactivate, caller).get(0).getApiKey();
+    }
+
+    /**
+     * Rotate API keys of many services in one transaction.
+     * Revoked accounts are only rotated, and thereby reactivated, when asked to explicitly.
+     */
+    @Transactional
+    public List<ApiKeyResponse> rotateApiKeys(Collection<Long> serviceAccountIds, boolean reactivate,
+                                              AuthenticatedPrincipal caller) {
+        Set<Long> ids = new LinkedHashSet<>(serviceAccountIds);
+        List<ServiceAccount> accounts = serviceAccountRepository.findAllById(ids);
+
+        if (accounts.size() != ids.size()) {
+            throw new IllegalArgumentException(ApiConstants.SERVICE_ACCOUNT_NOT_FOUND);
+        }
+        requireScopesHeldBy(caller, accounts);
+        if (!reactivate && accounts.stream().anyMatch(account -> !account.isActive())) {
+            throw new IllegalArgumentException(ApiConstants.ROTATE_REVOKED_ACCOUNT);
+        }
+
+        String[] apiKeys = newApiKeys(accounts.size());
+        List<String> oldApiKeyHashes = new ArrayList<>(accounts.size());
+        List<ApiKeyResponse> responses = new ArrayList<>(accounts.size());
+
+        for (int i = 0; i < accounts.size(); i++) {
+            ServiceAccount account = accounts.get(i);
+            oldApiKeyHashes.add(account.getApiKeyHash());
+
+            account.setApiKeyHash(hashApiKey(apiKeys[i]));
+            account.setActive(true);
+            account.setRevokedAt(null);
+
+            // Sessions opened with the old key must not outlive it
+            tokenStore.revokeAll(PrincipalType.SERVICE_ACCOUNT, account.getId());
+
+            responses.add(ApiKeyResponse.builder()
+                    .apiKey(apiKeys[i])
+                    .serviceName(account.getServiceName())
+                    .build());
+        }
 
-            // Generate new key
-            return generateApiKey(account.getServiceName(), account.getDescription());
+        serviceAccountRepository.saveAll(accounts);
+        for (int i = 0; i < accounts.size(); i++) {
+            ServiceAccount account = accounts.get(i);
+            recordWrites(account, List.of(oldApiKeyHashes.get(i), account.getApiKeyHash()));
         }
+        invalidateApiKeys(oldApiKeyHashes);
+        invalidateServiceLogins(accounts.stream().map(ServiceAccount::getServiceName).toList());
+        invalidateQuotas(accounts);
 
-        throw new IllegalArgumentException(ApiConstants.SERVICE_ACCOUNT_NOT_FOUND);
+        log.info("Rotated API keys for {} services", accounts.size());
+        return responses;
+    }
+
+    /**
+     * Change the request quota of a service account; null rate restores the default quota
+     */
+    @Transactional
+    public void updateQuota(Long serviceAccountId, Integer rateLimitPerSecond, Integer rateLimitBurst,
+                            AuthenticatedPrincipal caller) {
+        ServiceAccount account = serviceAccountRepository.findById(serviceAccountId)
+                .orElseThrow(() -> new IllegalArgumentException(ApiConstants.SERVICE_ACCOUNT_NOT_FOUND));
+        requireScopesHeldBy(caller, List.of(account));
+
+        account.setRateLimitPerSecond(rateLimitPerSecond);
+        account.setRateLimitBurst(rateLimitPerSecond != null ? rateLimitBurst : null);
+        serviceAccountRepository.save(account);
+
+        recordWrites(account, List.of(account.getApiKeyHash()));
+        // Cached accounts carry the quota too, so the API key filter must not rebuild it from a stale copy
+        invalidateApiKeys(List.of(account.getApiKeyHash()));
+        invalidateQuotas(List.of(account));
+
+        log.info("Updated quota for service {}: {} req/s, burst {}",
+                account.getServiceName(), rateLimitPerSecond, account.getRateLimitBurst());
+    }
+
+    /**
+     * Replace the scopes of a service account. API key requests and tokens issued from now on
+     * carry the new scopes; access tokens already issued keep theirs until they expire.
+     */
+    @Transactional
+    public void updateScopes(Long serviceAccountId, Collection<String> scopeValues) {
+        long scopes = 0;
+        for (String value : scopeValues) {
+            Scope scope = Scope.fromValue(value);
+            if (scope == null) {
+                throw new IllegalArgumentException(ApiConstants.UNKNOWN_SCOPE + ": " + value);
+            }
+            scopes |= scope.getBit();
+        }
+
+        ServiceAccount account = serviceAccountRepository.findById(serviceAccountId)
+                .orElseThrow(() -> new IllegalArgumentException(ApiConstants.SERVICE_ACCOUNT_NOT_FOUND));
+        account.setScopes(scopes);
+        serviceAccountRepository.save(account);
+
+        recordWrites(account, List.of(account.getApiKeyHash()));
+        // The API key filter takes scopes from the cached account, and reused logins hold tokens with the old ones
+        invalidateApiKeys(List.of(account.getApiKeyHash()));
+        invalidateServiceLogins(List.of(account.getServiceName()));
+
+        log.info("Updated scopes for service {}: {}", account.getServiceName(), Scope.format(scopes));
     }
 
     /**
      * Hash API key before storing (never store plain text)
      */
     private String hashApiKey(String apiKey) {
-        return passwordEncoder.encode(apiKey);
+        return apiKeyHasher.hash(apiKey);
+    }
+
+    /**
+     * Draw the random bytes for all requested keys at once
+     */
+    private String[] newApiKeys(int count) {
+        byte[] randomBytes = new byte[API_KEY_LENGTH * count];
+        secureRandom.nextBytes(randomBytes);
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String[] apiKeys = new String[count];
+        for (int i = 0; i < count; i++) {
+            apiKeys[i] = encoder.encodeToString(
+                    Arrays.copyOfRange(randomBytes, i * API_KEY_LENGTH, (i + 1) * API_KEY_LENGTH));
+        }
+        return apiKeys;
+    }
+
+    private ServiceAccount newServiceAccount(String serviceName, String description, String apiKey) {
+        return ServiceAccount.builder()
+                .serviceName(serviceName)
+                .description(description)
+                .apiKeyHash(hashApiKey(apiKey))
+                .active(true)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Refuse a service caller any change to accounts with scopes it does not hold itself, so it
+     * can neither mint keys carrying them nor revoke or throttle wider accounts; users got here
+     * through the admin role
+     */
+    private static void requireScopesHeldBy(AuthenticatedPrincipal caller, Collection<ServiceAccount> accounts) {
+        if (!caller.isServiceAccount()) {
+            return;
+        }
+        for (ServiceAccount account : accounts) {
+            if ((account.getScopes() & ~caller.getGrants()) != 0) {
+                log.warn("Service {} refused a change to {} with scopes {}", caller.getName(),
+                        account.getServiceName(), Scope.format(account.getScopes()));
+                throw new AccessDeniedException(ApiConstants.ACCESS_DENIED);
+            }
+        }
+    }
+
+    /**
+     * Keep lookups of a changed account on the primary while the replicas catch up
+     */
+    private void recordWrites(ServiceAccount account, Collection<String> apiKeyHashes) {
+        replicaLagGuard.recordWrite(ReplicaLagGuard.serviceAccountKey(account.getServiceName()));
+        replicaLagGuard.recordWrite(ReplicaLagGuard.principalKey(PrincipalType.SERVICE_ACCOUNT, account.getId()));
+        apiKeyHashes.forEach(apiKeyHash -> replicaLagGuard.recordWrite(ReplicaLagGuard.apiKeyKey(apiKeyHash)));
+    }
+
+    /**
+     * Evict cached lookups for the given key hashes on every node once the transaction commits
+     */
+    private void invalidateApiKeys(Collection<String> apiKeyHashes) {
+        cacheInvalidationBus.publish(ApiConstants.API_KEY_CACHE, apiKeyHashes);
+        cacheInvalidationBus.publish(ApiConstants.API_KEY_SNAPSHOT_CACHE, apiKeyHashes);
+    }
+
+    /**
+     * Drop token pairs kept for login reuse on every node once the transaction commits
+     */
+    private void invalidateServiceLogins(Collection<String> serviceNames) {
+        cacheInvalidationBus.publish(ApiConstants.SERVICE_LOGIN_CACHE, serviceNames);
+    }
+
+    /**
+     * Drop per-node quota state so the next request rebuilds it from the changed account
+     */
+    private void invalidateQuotas(Collection<ServiceAccount> accounts) {
+        cacheInvalidationBus.publish(ApiConstants.SERVICE_QUOTA_CACHE,
+                accounts.stream().map(account -> String.valueOf(account.getId())).toList());
     }
 
     /**
@@ -118,4 +379,4 @@ public class ApiKeyService {
     public Optional<ServiceAccount> getServiceAccount(String serviceName) {
         return serviceAccountRepository.findByServiceName(serviceName);
     }
-}
\ No newline at end of file
+}
@@ -2,9 +2,12 @@ package com.bank.capp.controllers;
 
 import com.bank.capp.constants.ApiConstants;
 import com.bank.capp.models.*;
+import com.bank.capp.security.OpenEndpoint;
 import com.bank.capp.services.AuthenticationService;
+import com.bank.capp.services.LoginThrottle;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -12,11 +15,13 @@ import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping(ApiConstants.AUTH_BASE_PATH)
+@OpenEndpoint
 @RequiredArgsConstructor
 @Tag(name = "Authentication", description = "Authentication management APIs")
 public class AuthenticationController {
 
     private final AuthenticationService authenticationService;
+    private final LoginThrottle loginThrottle;
 
     @PostMapping("/register")
     @Operation(summary = "Register a new user", description = "Creates a new user account")
@@ -29,8 +34,10 @@ public class AuthenticationController {
     @PostMapping("/login")
     @Operation(summary = "User login", description = "Authenticate user and return JWT tokens")
     public ResponseEntity<AuthenticationResponse> login(
-            @Valid @RequestBody AuthenticationRequest request
+            @Valid @RequestBody AuthenticationRequest request,
+            HttpServletRequest httpRequest
     ) {
+        loginThrottle.checkUserLogin(request.getUsername(), httpRequest.getRemoteAddr());
         return ResponseEntity.ok(authenticationService.authenticate(request));
     }
 
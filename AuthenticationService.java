@@ -1,46 +1,62 @@
 package com.bank.capp.services;
 
 import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.datasource.ReplicaLagGuard;
+import com.bank.capp.exceptions.AuthFailure;
+import com.bank.capp.exceptions.AuthenticationFailureException;
+import com.bank.capp.jfr.RefreshTokenLookupEvent;
+import com.bank.capp.metrics.AuthMetrics;
+import com.bank.capp.metrics.AuthMetrics.SessionOperation;
 import com.bank.capp.models.*;
-import com.bank.capp.repository.RefreshTokenRepository;
+import com.bank.capp.repository.TokenStore;
 import com.bank.capp.repository.UserRepository;
+import com.bank.capp.security.UserSecuritySnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
 
+    // Name PostgreSQL gives the UNIQUE constraint on users.email in V1
+    private static final String EMAIL_CONSTRAINT = "users_email_key";
+    private static final String USERNAME_CONSTRAINT = "users_username_key";
+
     private final UserRepository userRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenStore tokenStore;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final AuthMetrics authMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final RefreshCoalescer refreshCoalescer;
+    private final UserDetailsService userDetailsService;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     /**
      * Register a new user
      */
     @Transactional
     public AuthenticationResponse register(RegisterRequest request) {
-        // Check if username already exists
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new IllegalArgumentException(ApiConstants.USERNAME_EXISTS);
-        }
-
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException(ApiConstants.EMAIL_EXISTS);
-        }
-
         // Create new user
         var user = User.builder()
                 .username(request.getUsername())
@@ -55,79 +71,126 @@ public class AuthenticationService {
                 .credentialsNonExpired(true)
                 .build();
 
-        var savedUser = userRepository.save(user);
+        // Uniqueness is enforced by the users table constraints rather than pre-checks
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException(duplicateUserMessage(e));
+        }
+        String principalKey = ReplicaLagGuard.principalKey(PrincipalType.USER, savedUser.getId());
+        replicaLagGuard.recordWrite(ReplicaLagGuard.userKey(savedUser.getUsername()));
+        replicaLagGuard.recordWrite(principalKey);
+        // Other nodes look the new user up by id on refresh
+        cacheInvalidationBus.publish(ApiConstants.REPLICA_WRITES, principalKey);
         log.info("New user registered: {}", savedUser.getUsername());
 
         // Generate tokens
-        var jwtToken = jwtService.generateToken(user);
-        var refreshToken = jwtService.generateRefreshToken(user);
+        TokenPair tokens = jwtService.generateTokenPair(savedUser);
 
         // Save refresh token
-        saveRefreshToken(user, refreshToken);
+        saveRefreshToken(savedUser.getId(), tokens.getRefreshToken());
 
-        return buildAuthenticationResponse(savedUser, jwtToken, refreshToken);
+        return buildAuthenticationResponse(savedUser.getUsername(), savedUser.getEmail(),
+                tokens.getAccessToken(), tokens.getRefreshToken());
     }
 
     /**
-     * Authenticate user and generate tokens
+     * Authenticate user and generate tokens.
+     * Not transactional as a whole: the credential check reads from a replica and
+     * only the token rotation runs in a transaction on the primary.
      */
-    @Transactional
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
-        // Authenticate user
-        authenticationManager.authenticate(
+        return authMetrics.timeSession(SessionOperation.LOGIN, PrincipalType.USER, () -> login(request));
+    }
+
+    /**
+     * Verify credentials, replace the user's refresh tokens and issue a new token pair
+     */
+    private AuthenticationResponse login(AuthenticationRequest request) {
+        // Authenticate user; the provider's loaded principal is reused instead of fetching it again
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getUsername(),
                         request.getPassword()
                 )
         );
-
-        // Fetch user
-        var user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new UsernameNotFoundException(ApiConstants.USER_NOT_FOUND));
-
-        // Update last login
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        UserSecuritySnapshot user = (UserSecuritySnapshot) authentication.getPrincipal();
 
         // Generate tokens
-        var jwtToken = jwtService.generateToken(user);
-        var refreshToken = jwtService.generateRefreshToken(user);
+        TokenPair tokens = jwtService.generateTokenPair(user);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Update last login with a single UPDATE instead of a merge
+            userRepository.updateLastLoginAt(user.getId(), LocalDateTime.now());
 
-        // Revoke old refresh tokens and save new one
-        revokeAllUserTokens(user);
-        saveRefreshToken(user, refreshToken);
+            // Revoke old refresh tokens and save new one
+            revokeAllUserTokens(user.getId());
+            saveRefreshToken(user.getId(), tokens.getRefreshToken());
+        });
 
         log.info("User authenticated: {}", user.getUsername());
 
-        return buildAuthenticationResponse(user, jwtToken, refreshToken);
+        return buildAuthenticationResponse(user.getUsername(), user.getEmail(),
+                tokens.getAccessToken(), tokens.getRefreshToken());
     }
 
     /**
-     * Refresh access token using refresh token
+     * Refresh access token using refresh token.
+     * Only reads, each in its own read-only transaction so replicas can serve them.
+     * Retries with the same refresh token are coalesced and reuse the issued access token.
      */
-    @Transactional
     public AuthenticationResponse refreshToken(RefreshTokenRequest request) {
+        return authMetrics.timeSession(SessionOperation.REFRESH, PrincipalType.USER,
+                () -> refreshCoalescer.refresh(PrincipalType.USER, request.getRefreshToken(),
+                        () -> refresh(request), (response, token) -> isActive(response), this::aged));
+    }
+
+    /**
+     * Whether the user of a reused response may still sign in, judged from the cached user details
+     */
+    private boolean isActive(AuthenticationResponse response) {
+        try {
+            UserDetails user = userDetailsService.loadUserByUsername(response.getUsername());
+            return user.isEnabled() && user.isAccountNonLocked();
+        } catch (UsernameNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check the refresh token against the token store and issue a new access token
+     */
+    private AuthenticationResponse refresh(RefreshTokenRequest request) {
         String requestRefreshToken = request.getRefreshToken();
 
         // Find refresh token
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(requestRefreshToken)
-                .orElseThrow(() -> new IllegalArgumentException(ApiConstants.INVALID_REFRESH_TOKEN));
+        RefreshTokenLookupEvent lookup = new RefreshTokenLookupEvent();
+        lookup.begin();
+        Optional<StoredToken> storedToken = tokenStore.findByToken(PrincipalType.USER, requestRefreshToken);
+        lookup.complete(PrincipalType.USER, storedToken.isPresent());
+
+        StoredToken refreshToken = storedToken
+                .orElseThrow(() -> new AuthenticationFailureException(AuthFailure.INVALID_REFRESH_TOKEN));
 
         // Validate refresh token
         if (refreshToken.isRevoked()) {
-            throw new IllegalArgumentException(ApiConstants.REFRESH_TOKEN_REVOKED);
+            throw new AuthenticationFailureException(AuthFailure.REFRESH_TOKEN_REVOKED);
         }
 
         if (refreshToken.isExpired()) {
-            throw new IllegalArgumentException(ApiConstants.REFRESH_TOKEN_EXPIRED);
+            throw new AuthenticationFailureException(AuthFailure.REFRESH_TOKEN_EXPIRED);
         }
 
-        // Get user
-        User user = refreshToken.getUser();
+        // Get user; it may have registered on another node moments ago
+        User user = replicaLagGuard.readExisting(
+                        ReplicaLagGuard.principalKey(PrincipalType.USER, refreshToken.getPrincipalId()),
+                        () -> userRepository.findById(refreshToken.getPrincipalId()))
+                .orElseThrow(() -> new AuthenticationFailureException(AuthFailure.INVALID_REFRESH_TOKEN));
 
         // Validate JWT in refresh token
         if (!jwtService.isTokenValid(requestRefreshToken, user)) {
-            throw new IllegalArgumentException(ApiConstants.INVALID_REFRESH_TOKEN);
+            throw new AuthenticationFailureException(AuthFailure.INVALID_REFRESH_TOKEN);
         }
 
         // Generate new access token
@@ -135,7 +198,7 @@ public class AuthenticationService {
 
         log.info("Token refreshed for user: {}", user.getUsername());
 
-        return buildAuthenticationResponse(user, accessToken, requestRefreshToken);
+        return buildAuthenticationResponse(user.getUsername(), user.getEmail(), accessToken, requestRefreshToken);
     }
 
     /**
@@ -143,45 +206,75 @@ public class AuthenticationService {
      */
     @Transactional
     public void logout(RefreshTokenRequest request) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(request.getRefreshToken())
-                .orElseThrow(() -> new IllegalArgumentException(ApiConstants.INVALID_REFRESH_TOKEN));
+        authMetrics.timeSession(SessionOperation.LOGOUT, PrincipalType.USER, () -> revokeRefreshToken(request));
+    }
 
-        refreshToken.setRevoked(true);
-        refreshTokenRepository.save(refreshToken);
+    /**
+     * Revoke a single user refresh token
+     */
+    private void revokeRefreshToken(RefreshTokenRequest request) {
+        if (!tokenStore.revoke(PrincipalType.USER, request.getRefreshToken())) {
+            throw new AuthenticationFailureException(AuthFailure.INVALID_REFRESH_TOKEN);
+        }
 
-        log.info("User logged out: {}", refreshToken.getUser().getUsername());
+        log.info("User refresh token revoked on logout");
     }
 
     /**
-     * Save refresh token to database
+     * Map a unique constraint violation on the users table to its error message by the violated
+     * constraint, not the driver message, which also quotes the offending values
      */
-    private void saveRefreshToken(User user, String token) {
-        long refreshExpirationSeconds = 604800; // 7 days - can be moved to config
-        var refreshToken = RefreshToken.builder()
-                .user(user)
-                .token(token)
-                .expiryDate(LocalDateTime.now().plusSeconds(refreshExpirationSeconds))
-                .revoked(false)
-                .build();
+    private String duplicateUserMessage(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                String constraint = violation.getConstraintName().toLowerCase(Locale.ROOT);
+                if (constraint.equals(EMAIL_CONSTRAINT)) {
+                    return ApiConstants.EMAIL_EXISTS;
+                }
+                if (constraint.equals(USERNAME_CONSTRAINT)) {
+                    return ApiConstants.USERNAME_EXISTS;
+                }
+            }
+        }
+        return ApiConstants.USER_ALREADY_EXISTS;
+    }
 
-        refreshTokenRepository.save(refreshToken);
+    /**
+     * Save refresh token to the token store
+     */
+    private void saveRefreshToken(Long userId, String token) {
+        long refreshExpirationSeconds = 604800; // 7 days - can be moved to config
+        tokenStore.save(PrincipalType.USER, userId, token,
+                LocalDateTime.now().plusSeconds(refreshExpirationSeconds));
     }
 
     /**
      * Revoke all refresh tokens for a user
      */
-    private void revokeAllUserTokens(User user) {
-        refreshTokenRepository.findByUser(user).ifPresent(token -> {
-            token.setRevoked(true);
-            refreshTokenRepository.save(token);
-        });
+    private void revokeAllUserTokens(Long userId) {
+        tokenStore.revokeAll(PrincipalType.USER, userId);
+    }
+
+    /**
+     * Copy of a reused refresh response with the time since it was issued taken off its lifetime
+     */
+    private AuthenticationResponse aged(AuthenticationResponse response, Duration age) {
+        return AuthenticationResponse.builder()
+                .accessToken(response.getAccessToken())
+                .refreshToken(response.getRefreshToken())
+                .tokenType(response.getTokenType())
+                .expiresIn(Math.max(0, response.getExpiresIn() - age.getSeconds()))
+                .username(response.getUsername())
+                .email(response.getEmail())
+                .build();
     }
 
     /**
      * Build authentication response
      */
     private AuthenticationResponse buildAuthenticationResponse(
-            User user,
+            String username,
+            String email,
             String accessToken,
             String refreshToken
     ) {
@@ -190,8 +283,8 @@ public class AuthenticationService {
                 .refreshToken(refreshToken)
                 .tokenType(ApiConstants.TOKEN_TYPE_BEARER)
                 .expiresIn(jwtService.getJwtExpirationInSeconds())
-                .username(user.getUsername())
-                .email(user.getEmail())
+                .username(username)
+                .email(email)
                 .build();
     }
 }
@@ -1,24 +1,82 @@
 package com.bank.capp.services;
 
 import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.datasource.ReplicaLagGuard;
+import com.bank.capp.events.UserSecurityChangedEvent;
+import com.bank.capp.metrics.AuthMetrics;
+import com.bank.capp.models.PrincipalType;
 import com.bank.capp.repository.UserRepository;
+import com.bank.capp.resilience.AuthLookupGuard;
+import com.bank.capp.security.UserSecuritySnapshot;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final AuthMetrics authMetrics;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final AuthLookupGuard authLookupGuard;
 
+    /**
+     * Load an immutable security snapshot of the user, cached by username.
+     * Read from a replica unless the user was changed within the replica lag window;
+     * served from the last-known-good snapshot while the database is degraded.
+     * Not transactional: the lookup runs on the guard's pool, which opens its own connection.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+        Cache cache = cacheManager.getCache(ApiConstants.USER_CACHE);
+        UserSecuritySnapshot cached = cache != null ? cache.get(username, UserSecuritySnapshot.class) : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        // Keep snapshots out of the regular cache while degraded, so the node keeps retrying the database
+        long start = System.nanoTime();
+        Optional<UserSecuritySnapshot> user = authLookupGuard.lookup(ApiConstants.USER_SNAPSHOT_CACHE, username,
+                () -> replicaLagGuard.read(ReplicaLagGuard.userKey(username),
+                        () -> userRepository.findByUsername(username).map(UserSecuritySnapshot::from)),
+                fresh -> {
+                    if (cache != null) {
+                        cache.put(username, fresh);
+                    }
+                });
+        authMetrics.recordUserLoad(user.isPresent(), start);
+
+        return user
                 .orElseThrow(() -> new UsernameNotFoundException(
                         ApiConstants.USER_NOT_FOUND + ": " + username
                 ));
     }
-}
\ No newline at end of file
+
+    /**
+     * Drop the cached snapshot on every node once the change to the user commits.
+     * Handled synchronously so the broadcast joins the transaction that changed the user.
+     */
+    @EventListener
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        replicaLagGuard.recordWrite(ReplicaLagGuard.userKey(event.getUsername()));
+        replicaLagGuard.recordWrite(ReplicaLagGuard.principalKey(PrincipalType.USER, event.getUserId()));
+        cacheInvalidationBus.publish(ApiConstants.USER_CACHE, event.getUsername());
+        cacheInvalidationBus.publish(ApiConstants.USER_SNAPSHOT_CACHE, event.getUsername());
+        // Refreshes look the user up by id, which no cache is keyed by
+        cacheInvalidationBus.publish(ApiConstants.REPLICA_WRITES,
+                ReplicaLagGuard.principalKey(PrincipalType.USER, event.getUserId()));
+        log.debug("Invalidating cached user '{}'", event.getUsername());
+    }
+}
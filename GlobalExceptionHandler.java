@@ -1,17 +1,23 @@
 package com.bank.capp.exceptions;
 
-import com.bank.capp.constants.ApiConstants;
 import com.bank.capp.models.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -20,18 +26,48 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final ErrorResponses errorResponses;
+    private final LogRateLimiter badCredentialsLog;
+    private final LogRateLimiter authFailureLog;
+    private final LogRateLimiter throttleLog;
+    private final LogRateLimiter unavailableLog;
+
+    public GlobalExceptionHandler(
+            ErrorResponses errorResponses,
+            @Value("${application.logging.auth-failure-interval:10s}") Duration authFailureLogInterval
+    ) {
+        this.errorResponses = errorResponses;
+        this.badCredentialsLog = new LogRateLimiter(authFailureLogInterval);
+        this.authFailureLog = new LogRateLimiter(authFailureLogInterval);
+        this.throttleLog = new LogRateLimiter(authFailureLogInterval);
+        this.unavailableLog = new LogRateLimiter(authFailureLogInterval);
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
-    public ResponseEntity<ErrorResponse> handleBadCredentials(BadCredentialsException ex) {
-        log.error("Bad credentials: {}", ex.getMessage());
-        
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.UNAUTHORIZED.value())
-                .error("Unauthorized")
-                .message(ApiConstants.INVALID_CREDENTIALS)
-                .build();
-        
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    public ResponseEntity<byte[]> handleBadCredentials(BadCredentialsException ex) {
+        long suppressed = badCredentialsLog.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Bad credentials: {} ({} more since last report)", ex.getMessage(), suppressed);
+        }
+        return errorResponses.toResponse(AuthFailure.BAD_CREDENTIALS);
+    }
+
+    @ExceptionHandler(AuthenticationFailureException.class)
+    public ResponseEntity<byte[]> handleAuthenticationFailure(AuthenticationFailureException ex) {
+        long suppressed = authFailureLog.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Authentication rejected: {} ({} more since last report)", ex.getFailure(), suppressed);
+        }
+        return errorResponses.toResponse(ex.getFailure());
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<byte[]> handleAccessDenied(AccessDeniedException ex) {
+        long suppressed = authFailureLog.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Access denied: {} ({} more since last report)", ex.getMessage(), suppressed);
+        }
+        return errorResponses.toResponse(AuthFailure.ACCESS_DENIED);
     }
 
     @ExceptionHandler(UsernameNotFoundException.class)
@@ -62,6 +98,35 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(TooManyAttemptsException.class)
+    public ResponseEntity<byte[]> handleTooManyAttempts(TooManyAttemptsException ex) {
+        long suppressed = throttleLog.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Login attempt throttled, retry after {}s ({} more since last report)",
+                    ex.getRetryAfterSeconds(), suppressed);
+        }
+        return errorResponses.toResponseBuilder(ex.getFailure())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponses.body(ex.getFailure()));
+    }
+
+    /**
+     * The authentication store is down or too slow and the principal has no snapshot;
+     * DaoAuthenticationProvider wraps such failures of the user lookup
+     */
+    @ExceptionHandler({
+            DataAccessResourceFailureException.class,
+            QueryTimeoutException.class,
+            InternalAuthenticationServiceException.class
+    })
+    public ResponseEntity<byte[]> handleAuthenticationUnavailable(RuntimeException ex) {
+        long suppressed = unavailableLog.tryAcquire();
+        if (suppressed >= 0) {
+            log.error("Authentication store unavailable: {} ({} more since last report)", ex.getMessage(), suppressed);
+        }
+        return errorResponses.toResponse(AuthFailure.AUTHENTICATION_UNAVAILABLE);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(
             MethodArgumentNotValidException ex
@@ -1,31 +1,52 @@
 package com.bank.capp.security;
 
 import com.bank.capp.constants.SecurityConstants;
+import com.bank.capp.exceptions.AuthFailure;
+import com.bank.capp.exceptions.ErrorResponses;
+import com.bank.capp.exceptions.LogRateLimiter;
+import com.bank.capp.jfr.AuthenticationFilterEvent;
+import com.bank.capp.metrics.AuthMetrics;
+import com.bank.capp.metrics.AuthMetrics.FilterOutcome;
+import com.bank.capp.models.PrincipalType;
 import com.bank.capp.services.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String FILTER_NAME = "jwt";
+    private static final WebAuthenticationDetailsSource DETAILS_SOURCE = new WebAuthenticationDetailsSource();
+    private static final Duration REJECTION_LOG_INTERVAL = Duration.ofSeconds(10);
+
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final AuthMetrics authMetrics;
+    private final ServiceQuotaLimiter serviceQuotaLimiter;
+    private final ErrorResponses errorResponses;
+    private final LogRateLimiter rejectionLog = new LogRateLimiter(REJECTION_LOG_INTERVAL);
 
     @Override
     protected void doFilterInternal(
@@ -56,37 +77,108 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        AuthenticationFilterEvent event = new AuthenticationFilterEvent();
+        event.begin();
+        long start = System.nanoTime();
+        PrincipalType principalType = PrincipalType.USER;
+        FilterOutcome outcome = FilterOutcome.REJECTED;
         try {
-            // Extract JWT token
+            // Extract JWT token and parse it once
             jwt = authHeader.substring(SecurityConstants.BEARER_PREFIX.length());
-            username = jwtService.extractUsername(jwt);
+            Claims claims = jwtService.parseClaims(jwt);
+            username = claims.getSubject();
 
-            // Validate token and authenticate user
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (username != null && jwtService.isServiceToken(claims)) {
+                // Service tokens never resolve to a user, even if a user shares the service name
+                principalType = PrincipalType.SERVICE_ACCOUNT;
+                outcome = authenticateService(claims, request, response);
+            } else if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Validate token and authenticate user
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                if (jwtService.isTokenValid(claims, userDetails)) {
+                    AuthenticatedPrincipal principal = userDetails instanceof UserSecuritySnapshot snapshot
+                            ? snapshot.getPrincipal()
+                            : AuthenticatedPrincipal.user(null, userDetails.getUsername(),
+                                    List.copyOf(userDetails.getAuthorities()));
+
+                    authenticate(principal, request);
+                    outcome = FilterOutcome.AUTHENTICATED;
                     log.debug("User '{}' authenticated via JWT", username);
                 } else {
-                    log.warn("Invalid JWT token for user '{}'", username);
+                    logRejection("JWT does not match user '{}'", username);
                 }
             }
+        } catch (JwtException | UsernameNotFoundException e) {
+            // Expected for forged, expired or stale tokens; no stack trace, and only now and then
+            logRejection("JWT rejected: {}", e.getMessage());
+        } catch (DataAccessException e) {
+            // Database degraded and no snapshot of the principal; tell the client to retry, not to re-login
+            outcome = FilterOutcome.UNAVAILABLE;
+            logRejection("JWT authentication unavailable: {}", e.getMessage());
         } catch (Exception e) {
+            outcome = FilterOutcome.ERROR;
             log.error("JWT authentication failed", e);
         }
+        authMetrics.recordFilter(principalType, outcome, start);
+        event.complete(FILTER_NAME, outcome.name());
+
+        if (outcome == FilterOutcome.UNAVAILABLE) {
+            errorResponses.write(AuthFailure.AUTHENTICATION_UNAVAILABLE, response);
+            return;
+        }
+        // The 429 has been written; the request goes no further
+        if (outcome == FilterOutcome.THROTTLED) {
+            return;
+        }
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Authenticate a service account access token and charge the request to its quota
+     */
+    private FilterOutcome authenticateService(
+            Claims claims,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        Long serviceAccountId = jwtService.extractServiceAccountId(claims);
+        ServiceQuota quota = serviceAccountId != null ? serviceQuotaLimiter.quotaFor(serviceAccountId) : null;
+        if (quota == null) {
+            logRejection("JWT for unknown or inactive service '{}'", claims.getSubject());
+            return FilterOutcome.REJECTED;
+        }
+
+        authenticate(AuthenticatedPrincipal.serviceAccount(
+                serviceAccountId, claims.getSubject(), jwtService.extractScopes(claims)), request);
+        request.setAttribute("authenticatedService", claims.getSubject());
+
+        if (!serviceQuotaLimiter.admit(quota, response)) {
+            SecurityContextHolder.clearContext();
+            return FilterOutcome.THROTTLED;
+        }
+        log.debug("Service '{}' authenticated via JWT", claims.getSubject());
+        return FilterOutcome.AUTHENTICATED;
+    }
+
+    private void logRejection(String message, Object argument) {
+        long suppressed = rejectionLog.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn(message + " ({} more since last report)", argument, suppressed);
+        }
+    }
+
+    private void authenticate(AuthenticatedPrincipal principal, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authToken = UsernamePasswordAuthenticationToken.authenticated(
+                principal,
+                null,
+                principal.getAuthorities()
+        );
+        authToken.setDetails(DETAILS_SOURCE.buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
     private boolean isPublicEndpoint(String path) {
         for (String endpoint : SecurityConstants.PUBLIC_ENDPOINTS) {
             if (endpoint.endsWith("/**")) {
@@ -1,6 +1,15 @@
 package com.bank.capp.services;
 
+import com.bank.capp.jfr.JwtEvent;
+import com.bank.capp.metrics.AuthMetrics;
+import com.bank.capp.metrics.AuthMetrics.JwtOperation;
+import com.bank.capp.metrics.AuthMetrics.JwtOutcome;
+import com.bank.capp.models.Scope;
+import com.bank.capp.models.TokenPair;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -11,6 +20,7 @@ import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.Locale;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
@@ -18,14 +28,31 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
-
-    @Value("${application.security.jwt.expiration}")
-    private long jwtExpiration;
-
-    @Value("${application.security.jwt.refresh-token.expiration}")
-    private long refreshExpiration;
+    private static final String SERVICE_TYPE_CLAIM = "type";
+    private static final String SERVICE_TOKEN_TYPE = "service";
+    private static final String SERVICE_ID_CLAIM = "service_id";
+    private static final String SCOPE_CLAIM = "scope";
+    private static final String UNKNOWN_TOKEN_TYPE = "unknown";
+
+    private final Key signInKey;
+    private final JwtParser jwtParser;
+    private final long jwtExpiration;
+    private final long refreshExpiration;
+    private final AuthMetrics authMetrics;
+
+    public JwtService(
+            @Value("${application.security.jwt.secret-key}") String secretKey,
+            @Value("${application.security.jwt.expiration}") long jwtExpiration,
+            @Value("${application.security.jwt.refresh-token.expiration}") long refreshExpiration,
+            AuthMetrics authMetrics
+    ) {
+        // Decode the key and build the parser once instead of on every sign/parse
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        this.jwtExpiration = jwtExpiration;
+        this.refreshExpiration = refreshExpiration;
+        this.authMetrics = authMetrics;
+    }
 
     /**
      * Extract username from JWT token
@@ -53,14 +80,33 @@ public class JwtService {
      * Generate token with extra claims
      */
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return buildToken(extraClaims, userDetails.getUsername(), System.currentTimeMillis(), jwtExpiration);
     }
 
     /**
      * Generate refresh token
      */
     public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        return buildToken(new HashMap<>(), userDetails.getUsername(), System.currentTimeMillis(), refreshExpiration);
+    }
+
+    /**
+     * Generate access and refresh token in one pass, sharing subject and issue time
+     */
+    public TokenPair generateTokenPair(Map<String, Object> extraClaims, UserDetails userDetails) {
+        String subject = userDetails.getUsername();
+        long issuedAt = System.currentTimeMillis();
+        return new TokenPair(
+                buildToken(extraClaims, subject, issuedAt, jwtExpiration),
+                buildToken(new HashMap<>(), subject, issuedAt, refreshExpiration)
+        );
+    }
+
+    /**
+     * Generate access and refresh token for user
+     */
+    public TokenPair generateTokenPair(UserDetails userDetails) {
+        return generateTokenPair(new HashMap<>(), userDetails);
     }
 
     /**
@@ -68,17 +114,27 @@ public class JwtService {
      */
     private String buildToken(
             Map<String, Object> extraClaims,
-            UserDetails userDetails,
+            String subject,
+            long issuedAt,
             long expiration
     ) {
-        return Jwts
+        JwtEvent event = new JwtEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String token = Jwts
                 .builder()
                 .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setSubject(subject)
+                .setIssuedAt(new Date(issuedAt))
+                .setExpiration(new Date(issuedAt + expiration))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
+        authMetrics.recordJwt(JwtOperation.SIGN, JwtOutcome.SUCCESS, start);
+        if (event.isEnabled()) {
+            event.complete(tag(JwtOperation.SIGN), tokenType(extraClaims.get(SERVICE_TYPE_CLAIM), expiration),
+                    tag(JwtOutcome.SUCCESS));
+        }
+        return token;
     }
 
     /**
@@ -89,6 +145,42 @@ public class JwtService {
         return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
     }
 
+    /**
+     * Validate already parsed claims against user details
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date());
+    }
+
+    /**
+     * Verify the signature and parse the claims of a token once
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
+    /**
+     * Check whether parsed claims belong to a service account access token
+     */
+    public boolean isServiceToken(Claims claims) {
+        return SERVICE_TOKEN_TYPE.equals(claims.get(SERVICE_TYPE_CLAIM));
+    }
+
+    /**
+     * Service account id carried by a service account access token
+     */
+    public Long extractServiceAccountId(Claims claims) {
+        return claims.get(SERVICE_ID_CLAIM, Long.class);
+    }
+
+    /**
+     * Scope mask carried by a service account access token
+     */
+    public long extractScopes(Claims claims) {
+        return Scope.parse(claims.get(SCOPE_CLAIM, String.class));
+    }
+
     /**
      * Check if token is expired
      */
@@ -107,20 +199,50 @@ public class JwtService {
      * Extract all claims from token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        JwtEvent event = new JwtEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            Claims claims = jwtParser
+                    .parseClaimsJws(token)
+                    .getBody();
+            authMetrics.recordJwt(JwtOperation.VERIFY, JwtOutcome.SUCCESS, start);
+            if (event.isEnabled()) {
+                event.complete(tag(JwtOperation.VERIFY), tokenType(claims), tag(JwtOutcome.SUCCESS));
+            }
+            return claims;
+        } catch (ExpiredJwtException e) {
+            authMetrics.recordJwt(JwtOperation.VERIFY, JwtOutcome.EXPIRED, start);
+            event.complete(tag(JwtOperation.VERIFY), UNKNOWN_TOKEN_TYPE, tag(JwtOutcome.EXPIRED));
+            throw e;
+        } catch (JwtException | IllegalArgumentException e) {
+            authMetrics.recordJwt(JwtOperation.VERIFY, JwtOutcome.INVALID, start);
+            event.complete(tag(JwtOperation.VERIFY), UNKNOWN_TOKEN_TYPE, tag(JwtOutcome.INVALID));
+            throw e;
+        }
     }
 
     /**
-     * Get signing key for JWT
+     * Classify a token for the flight recorder: service tokens carry a type claim,
+     * refresh tokens are told apart from access tokens by their lifetime
      */
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private String tokenType(Object typeClaim, long lifetimeMillis) {
+        if (typeClaim != null) {
+            return String.valueOf(typeClaim);
+        }
+        return lifetimeMillis >= refreshExpiration ? "refresh" : "access";
+    }
+
+    private String tokenType(Claims claims) {
+        if (claims.getIssuedAt() == null || claims.getExpiration() == null) {
+            return tokenType(claims.get(SERVICE_TYPE_CLAIM), 0);
+        }
+        return tokenType(claims.get(SERVICE_TYPE_CLAIM),
+                claims.getExpiration().getTime() - claims.getIssuedAt().getTime());
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
     }
     
     /**
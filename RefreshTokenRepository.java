@@ -1,12 +1,15 @@
 package com.bank.capp.repository;
 
 import com.bank.capp.models.RefreshToken;
-import com.bank.capp.models.User;
+import com.bank.capp.models.StoredToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,13 +17,24 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
 
     Optional<RefreshToken> findByToken(String token);
 
-    Optional<RefreshToken> findByUser(User user);
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.token = :token")
+    int revokeByToken(String token);
 
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.user = :user")
-    void deleteByUser(User user);
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user.id = :userId AND rt.revoked = false")
+    int revokeAllByUserId(Long userId);
+
+    /**
+     * Keyset page of live tokens; served by the partial (user_id, id) index
+     */
+    @Query("SELECT new com.bank.capp.models.StoredToken(rt.id, com.bank.capp.models.PrincipalType.USER, "
+            + "rt.user.id, rt.expiryDate, rt.revoked, rt.createdAt) FROM RefreshToken rt "
+            + "WHERE rt.user.id = :userId AND rt.revoked = false AND rt.expiryDate > :now AND rt.id > :afterId "
+            + "ORDER BY rt.id")
+    List<StoredToken> findLiveSessions(Long userId, LocalDateTime now, long afterId, Pageable page);
 
     @Modifying
     @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < CURRENT_TIMESTAMP")
-    void deleteExpiredTokens();
+    int deleteExpiredTokens();
 }
\ No newline at end of file
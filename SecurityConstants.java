@@ -6,6 +6,9 @@ public class SecurityConstants {
     public static final String AUTHORIZATION_HEADER = "Authorization";
     public static final String API_KEY_HEADER = "X-API-Key";
     public static final String BEARER_PREFIX = "Bearer ";
+    public static final String RATE_LIMIT_LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String RATE_LIMIT_REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RATE_LIMIT_RESET_HEADER = "X-RateLimit-Reset";
     
     // Token Settings
     public static final long JWT_EXPIRATION_MS = 3600000; // 1 hour
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class ServiceAccount {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "service_accounts_seq")
+    @SequenceGenerator(name = "service_accounts_seq", sequenceName = "service_accounts_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "service_name", nullable = false, unique = true)
@@ -41,8 +42,29 @@ public class ServiceAccount {
     @Column(name = "revoked_at")
     private LocalDateTime revokedAt;
 
+    // Change marker for cache refresh; last-used updates deliberately leave it alone
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Request quota; null falls back to the configured default
+    @Column(name = "rate_limit_per_second")
+    private Integer rateLimitPerSecond;
+
+    @Column(name = "rate_limit_burst")
+    private Integer rateLimitBurst;
+
+    // Scope bitmask, see Scope
+    @Column(nullable = false)
+    private long scopes;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 }
\ No newline at end of file
@@ -2,16 +2,29 @@ package com.bank.capp.controllers;
 
 import com.bank.capp.constants.ApiConstants;
 import com.bank.capp.models.*;
+import com.bank.capp.security.AuthenticatedPrincipal;
+import com.bank.capp.security.RequiresScope;
+import com.bank.capp.services.AdminListingService;
 import com.bank.capp.services.ApiKeyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Lazy
 @RestController
 @RequestMapping(ApiConstants.SERVICE_ACCOUNT_BASE_PATH)
 @RequiredArgsConstructor
@@ -19,17 +32,23 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Service Account Management", description = "Manage service accounts and API keys")
 public class ServiceAccountController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final ApiKeyService apiKeyService;
+    private final AdminListingService adminListingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/generate-api-key")
-    @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Generate API key", description = "Generate a new API key for a service account (Admin only)")
+    @RequiresScope(value = Scope.API_KEYS_WRITE, roles = Role.ADMIN)
+    @Operation(summary = "Generate API key", description = "Generate a new API key for a service account (Admin or scope api-keys:write)")
     public ResponseEntity<ApiKeyResponse> generateApiKey(
-            @Valid @RequestBody ApiKeyGenerationRequest request
+            @Valid @RequestBody ApiKeyGenerationRequest request,
+            @AuthenticationPrincipal AuthenticatedPrincipal caller
     ) {
         String apiKey = apiKeyService.generateApiKey(
                 request.getServiceName(),
-                request.getDescription()
+                request.getDescription(),
+                caller
         );
 
         return ResponseEntity.ok(ApiKeyResponse.builder()
@@ -40,18 +59,29 @@ public class ServiceAccountController {
     }
 
     @PostMapping("/{id}/revoke")
-    @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Revoke API key", description = "Revoke an existing API key (Admin only)")
-    public ResponseEntity<MessageResponse> revokeApiKey(@PathVariable Long id) {
-        apiKeyService.revokeApiKey(id);
+    @RequiresScope(value = Scope.API_KEYS_WRITE, roles = Role.ADMIN)
+    @Operation(summary = "Revoke API key",
+            description = "Revoke an existing API key. Services can only revoke accounts whose scopes they hold "
+                    + "(Admin or scope api-keys:write)")
+    public ResponseEntity<MessageResponse> revokeApiKey(
+            @PathVariable Long id,
+            @AuthenticationPrincipal AuthenticatedPrincipal caller
+    ) {
+        apiKeyService.revokeApiKey(id, caller);
         return ResponseEntity.ok(new MessageResponse(ApiConstants.API_KEY_REVOKED));
     }
 
     @PostMapping("/{id}/rotate")
-    @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Rotate API key", description = "Rotate API key (revoke old, generate new) (Admin only)")
-    public ResponseEntity<ApiKeyResponse> rotateApiKey(@PathVariable Long id) {
-        String newApiKey = apiKeyService.rotateApiKey(id);
+    @RequiresScope(value = Scope.API_KEYS_WRITE, roles = Role.ADMIN)
+    @Operation(summary = "Rotate API key",
+            description = "Rotate API key (revoke old, generate new); a revoked account needs reactivate=true. "
+                    + "Services can only rotate accounts whose scopes they hold (Admin or scope api-keys:write)")
+    public ResponseEntity<ApiKeyResponse> rotateApiKey(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean reactivate,
+            @AuthenticationPrincipal AuthenticatedPrincipal caller
+    ) {
+        String newApiKey = apiKeyService.rotateApiKey(id, reactivate, caller);
 
         return ResponseEntity.ok(ApiKeyResponse.builder()
                 .apiKey(newApiKey)
@@ -59,9 +89,136 @@ public class ServiceAccountController {
                 .build());
     }
 
+    @PostMapping(value = "/batch/generate-api-keys", produces = NDJSON)
+    @RequiresScope(value = Scope.API_KEYS_WRITE, roles = Role.ADMIN)
+    @Operation(summary = "Generate API keys in batch",
+            description = "Create many service accounts in one transaction; keys are streamed once as JSON lines (Admin or scope api-keys:write)")
+    public ResponseEntity<StreamingResponseBody> generateApiKeys(
+            @Valid @RequestBody BatchApiKeyGenerationRequest request,
+            @AuthenticationPrincipal AuthenticatedPrincipal caller
+    ) {
+        return ResponseEntity.ok(streamApiKeys(apiKeyService.generateApiKeys(request.getAccounts(), caller)));
+    }
+
+    @PostMapping(value = "/batch/rotate", produces = NDJSON)
+    @RequiresScope(value = Scope.API_KEYS_WRITE, roles = Role.ADMIN)
+    @Operation(summary = "Rotate API keys in batch",
+            description = "Rotate API keys of many service accounts in one transaction; new keys are streamed as JSON lines. "
+                    + "Revoked accounts need reactivate=true. Services can only rotate accounts whose scopes they hold "
+                    + "(Admin or scope api-keys:write)")
+    public ResponseEntity<StreamingResponseBody> rotateApiKeys(
+            @Valid @RequestBody ServiceAccountIdsRequest request,
+            @RequestParam(defaultValue = "false") boolean reactivate,
+            @AuthenticationPrincipal AuthenticatedPrincipal caller
+    ) {
+        return ResponseEntity.ok(streamApiKeys(apiKeyService.rotateApiKeys(request.getIds(), reactivate, caller)));
+    }
+
+    @PostMapping("/batch/revoke")
+    @RequiresScope(value = Scope.API_KEYS_WRITE, roles = Role.ADMIN)
+    @Operation(summary = "Revoke API keys in batch",
+            description = "Revoke API keys of many service accounts. Services can only revoke accounts whose scopes "
+                    + "they hold (Admin or scope api-keys:write)")
+    public ResponseEntity<MessageResponse> revokeApiKeys(
+            @Valid @RequestBody ServiceAccountIdsRequest request,
+            @AuthenticationPrincipal AuthenticatedPrincipal caller
+    ) {
+        apiKeyService.revokeApiKeys(request.getIds(), caller);
+        return ResponseEntity.ok(new MessageResponse(ApiConstants.API_KEYS_REVOKED));
+    }
+
+    @PutMapping("/{id}/quota")
+    @RequiresScope(value = Scope.QUOTAS_WRITE, roles = Role.ADMIN)
+    @Operation(summary = "Update request quota",
+            description = "Set requests per second and burst of a service account; omit both to use the default quota. "
+                    + "Takes effect on every node without a restart. Services can only change accounts whose scopes "
+                    + "they hold (Admin or scope quotas:write)")
+    public ResponseEntity<MessageResponse> updateQuota(
+            @PathVariable Long id,
+            @Valid @RequestBody ServiceAccountQuotaRequest request,
+            @AuthenticationPrincipal AuthenticatedPrincipal caller
+    ) {
+        apiKeyService.updateQuota(id, request.getRateLimitPerSecond(), request.getRateLimitBurst(), caller);
+        return ResponseEntity.ok(new MessageResponse(ApiConstants.QUOTA_UPDATED));
+    }
+
+    @PutMapping("/{id}/scopes")
+    @RequiresScope(roles = Role.ADMIN)
+    @Operation(summary = "Update scopes",
+            description = "Replace the scopes of a service account. API key requests and newly issued tokens "
+                    + "carry them; issued access tokens keep their scopes until they expire (Admin only)")
+    public ResponseEntity<MessageResponse> updateScopes(
+            @PathVariable Long id,
+            @Valid @RequestBody ServiceAccountScopesRequest request
+    ) {
+        apiKeyService.updateScopes(id, request.getScopes());
+        return ResponseEntity.ok(new MessageResponse(ApiConstants.SCOPES_UPDATED));
+    }
+
+    @GetMapping
+    @RequiresScope(value = Scope.SERVICE_ACCOUNTS_READ, roles = Role.ADMIN)
+    @Operation(summary = "List service accounts",
+            description = "Page through service accounts in id order, optionally filtered by status and last use; "
+                    + "pass nextAfter of a page as after for the next one (Admin or scope service-accounts:read)")
+    public ResponseEntity<KeysetPage<ServiceAccountResponse>> listServiceAccounts(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + ApiConstants.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime lastUsedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime lastUsedTo
+    ) {
+        KeysetPage<ServiceAccount> page = adminListingService.listServiceAccounts(
+                after, limit, active, lastUsedFrom, lastUsedTo);
+
+        return ResponseEntity.ok(KeysetPage.<ServiceAccountResponse>builder()
+                .items(page.getItems().stream().map(this::toServiceAccountResponse).toList())
+                .nextAfter(page.getNextAfter())
+                .build());
+    }
+
+    @GetMapping(value = "/batch/export", produces = NDJSON)
+    @RequiresScope(value = Scope.SERVICE_ACCOUNTS_READ, roles = Role.ADMIN)
+    @Operation(summary = "Export service accounts",
+            description = "Stream all matching service accounts as JSON lines in id order with constant memory "
+                    + "(Admin or scope service-accounts:read)")
+    public ResponseEntity<StreamingResponseBody> exportServiceAccounts(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime lastUsedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime lastUsedTo
+    ) {
+        StreamingResponseBody body = outputStream -> adminListingService.exportServiceAccounts(
+                active,
+                lastUsedFrom,
+                lastUsedTo,
+                account -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(toServiceAccountResponse(account)));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+        );
+
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping("/{id}/sessions")
+    @RequiresScope(value = Scope.SERVICE_ACCOUNTS_READ, roles = Role.ADMIN)
+    @Operation(summary = "List service account sessions",
+            description = "Page through the live refresh sessions of a service account in id order "
+                    + "(Admin or scope service-accounts:read)")
+    public ResponseEntity<KeysetPage<SessionResponse>> listSessions(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + ApiConstants.DEFAULT_PAGE_SIZE) int limit
+    ) {
+        return ResponseEntity.ok(adminListingService.listSessions(PrincipalType.SERVICE_ACCOUNT, id, after, limit));
+    }
+
     @GetMapping("/{serviceName}")
-    @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get service account", description = "Get service account details by name (Admin only)")
+    @RequiresScope(value = Scope.SERVICE_ACCOUNTS_READ, roles = Role.ADMIN)
+    @Operation(summary = "Get service account", description = "Get service account details by name (Admin or scope service-accounts:read)")
     public ResponseEntity<ServiceAccountResponse> getServiceAccount(
             @PathVariable String serviceName
     ) {
@@ -71,6 +228,19 @@ public class ServiceAccountController {
         return ResponseEntity.ok(toServiceAccountResponse(account));
     }
 
+    /**
+     * Write generated keys as JSON lines; the transaction has already committed
+     */
+    private StreamingResponseBody streamApiKeys(List<ApiKeyResponse> apiKeys) {
+        return outputStream -> {
+            for (ApiKeyResponse apiKey : apiKeys) {
+                outputStream.write(objectMapper.writeValueAsBytes(apiKey));
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+        };
+    }
+
     private ServiceAccountResponse toServiceAccountResponse(ServiceAccount account) {
         return ServiceAccountResponse.builder()
                 .id(account.getId())
@@ -80,6 +250,9 @@ public class ServiceAccountController {
                 .createdAt(account.getCreatedAt())
                 .lastUsedAt(account.getLastUsedAt())
                 .revokedAt(account.getRevokedAt())
+                .rateLimitPerSecond(account.getRateLimitPerSecond())
+                .rateLimitBurst(account.getRateLimitBurst())
+                .scopes(Scope.fromMask(account.getScopes()).stream().map(Scope::getValue).toList())
                 .build();
     }
 }
\ No newline at end of file
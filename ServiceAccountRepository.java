@@ -1,20 +1,84 @@
 package com.bank.capp.repository;
 
 import com.bank.capp.models.ServiceAccount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ServiceAccountRepository extends JpaRepository<ServiceAccount, Long> {
 
+    // Optional listing filters; a null parameter leaves its condition out
+    String LISTING_FILTER = "(:active IS NULL OR sa.active = :active) "
+            + "AND (:lastUsedFrom IS NULL OR sa.lastUsedAt >= :lastUsedFrom) "
+            + "AND (:lastUsedTo IS NULL OR sa.lastUsedAt < :lastUsedTo)";
+
     Optional<ServiceAccount> findByServiceName(String serviceName);
 
     Optional<ServiceAccount> findByApiKeyHash(String apiKeyHash);
 
     List<ServiceAccount> findAllByActive(boolean active);
 
+    /**
+     * Stream accounts through a server-side cursor; must be consumed inside a transaction
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ServiceAccount> streamAllByActive(boolean active);
+
+    List<ServiceAccount> findAllByUpdatedAtAfter(LocalDateTime updatedAt);
+
+    /**
+     * Keyset page of accounts after the given id; walks the primary key, so deep pages cost the same as the first
+     */
+    @Query("SELECT sa FROM ServiceAccount sa WHERE sa.id > :afterId AND " + LISTING_FILTER + " ORDER BY sa.id")
+    List<ServiceAccount> findPage(
+            long afterId,
+            Boolean active,
+            LocalDateTime lastUsedFrom,
+            LocalDateTime lastUsedTo,
+            Pageable page
+    );
+
+    /**
+     * Stream filtered accounts through a server-side cursor; must be consumed inside a transaction
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT sa FROM ServiceAccount sa WHERE " + LISTING_FILTER + " ORDER BY sa.id")
+    Stream<ServiceAccount> streamFiltered(Boolean active, LocalDateTime lastUsedFrom, LocalDateTime lastUsedTo);
+
     boolean existsByServiceName(String serviceName);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ServiceAccount sa SET sa.lastUsedAt = :lastUsedAt WHERE sa.id = :id")
+    int updateLastUsedAt(Long id, LocalDateTime lastUsedAt);
+
+    /**
+     * Replace a key hash in place, only while the account still holds the expected old hash
+     */
+    @Modifying
+    @Query("UPDATE ServiceAccount sa SET sa.apiKeyHash = :newHash, sa.updatedAt = :updatedAt WHERE sa.id = :id AND sa.apiKeyHash = :oldHash")
+    int replaceApiKeyHash(Long id, String oldHash, String newHash, LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("UPDATE ServiceAccount sa SET sa.active = false, sa.revokedAt = :revokedAt, sa.updatedAt = :revokedAt WHERE sa.id IN :ids AND sa.active = true")
+    int revokeAllByIdIn(Collection<Long> ids, LocalDateTime revokedAt);
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -22,4 +23,7 @@ public class ServiceAccountResponse {
     private LocalDateTime createdAt;
     private LocalDateTime lastUsedAt;
     private LocalDateTime revokedAt;
+    private Integer rateLimitPerSecond;
+    private Integer rateLimitBurst;
+    private List<String> scopes;
 }
@@ -0,0 +1,60 @@
+package com.bank.capp.benchmarks;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.models.ServiceAccount;
+import com.bank.capp.security.ApiKeyHasher;
+import com.bank.capp.services.ApiKeyService;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * API key validation against an in-memory repository, with and without the apiKeys cache
+ */
+class ApiKeyServiceBenchmark implements BenchmarkSuite {
+
+    static final String API_KEY = "bench-api-key-0123456789abcdefghijklmnopqrstuv";
+
+    @Override
+    public Map<String, Callable<Object>> operations() {
+        Map<String, Callable<Object>> operations = new LinkedHashMap<>();
+        for (boolean cached : new boolean[]{true, false}) {
+            ApiKeyService apiKeyService = apiKeyService(cached);
+            operations.put("validateApiKey[cached=" + cached + "]", () -> apiKeyService.validateApiKey(API_KEY));
+            operations.put("validateUnknownApiKey[cached=" + cached + "]",
+                    () -> apiKeyService.validateApiKey("unknown-" + API_KEY));
+        }
+        return operations;
+    }
+
+    static ApiKeyService apiKeyService(boolean cached) {
+        ApiKeyHasher apiKeyHasher = new ApiKeyHasher(BenchmarkFixtures.passwordEncoder());
+        ServiceAccount account = ServiceAccount.builder()
+                .id(1L)
+                .serviceName("bench-service")
+                .description("Benchmark service")
+                .apiKeyHash(apiKeyHasher.hash(API_KEY))
+                .active(true)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        CacheManager cacheManager = cached
+                ? new ConcurrentMapCacheManager(ApiConstants.API_KEY_CACHE)
+                : new NoOpCacheManager();
+
+        return new ApiKeyService(
+                InMemoryServiceAccountRepository.of(account),
+                apiKeyHasher,
+                null,
+                cacheManager,
+                (cacheName, keys) -> keys.forEach(key -> cacheManager.getCache(cacheName).evict(key)),
+                BenchmarkFixtures.replicaLagGuard(),
+                BenchmarkFixtures.authLookupGuard(cacheManager)
+        );
+    }
+}
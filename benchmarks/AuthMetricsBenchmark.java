@@ -0,0 +1,44 @@
+package com.bank.capp.benchmarks;
+
+import com.bank.capp.metrics.AuthMetrics;
+import com.bank.capp.metrics.AuthMetrics.FailureReason;
+import com.bank.capp.metrics.AuthMetrics.FilterOutcome;
+import com.bank.capp.metrics.AuthMetrics.JwtOperation;
+import com.bank.capp.metrics.AuthMetrics.JwtOutcome;
+import com.bank.capp.metrics.AuthMetrics.SessionOperation;
+import com.bank.capp.models.PrincipalType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Overhead AuthMetrics adds to each instrumented stage; should stay in the tens of nanoseconds.
+ * The nanoTime baseline also shows what the runner's own loop costs.
+ */
+class AuthMetricsBenchmark implements BenchmarkSuite {
+
+    @Override
+    public Map<String, Callable<Object>> operations() {
+        AuthMetrics authMetrics = BenchmarkFixtures.authMetrics();
+
+        Map<String, Callable<Object>> operations = new LinkedHashMap<>();
+        operations.put("baselineNanoTime", System::nanoTime);
+        operations.put("recordJwt", () -> {
+            authMetrics.recordJwt(JwtOperation.VERIFY, JwtOutcome.SUCCESS, System.nanoTime());
+            return null;
+        });
+        operations.put("recordFilter", () -> {
+            authMetrics.recordFilter(PrincipalType.USER, FilterOutcome.AUTHENTICATED, System.nanoTime());
+            return null;
+        });
+        operations.put("recordSessionFailure", () -> {
+            authMetrics.recordSession(SessionOperation.LOGIN, PrincipalType.USER,
+                    FailureReason.BAD_CREDENTIALS, System.nanoTime());
+            return null;
+        });
+        operations.put("timeSession",
+                () -> authMetrics.timeSession(SessionOperation.REFRESH, PrincipalType.SERVICE_ACCOUNT, () -> operations));
+        return operations;
+    }
+}
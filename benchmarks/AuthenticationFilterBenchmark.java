@@ -0,0 +1,76 @@
+package com.bank.capp.benchmarks;
+
+import com.bank.capp.constants.SecurityConstants;
+import com.bank.capp.exceptions.ErrorResponses;
+import com.bank.capp.metrics.AuthMetrics;
+import com.bank.capp.security.ApiKeyAuthenticationFilter;
+import com.bank.capp.security.JwtAuthenticationFilter;
+import com.bank.capp.security.ServiceQuotaLimiter;
+import com.bank.capp.security.UserSecuritySnapshot;
+import com.bank.capp.services.JwtService;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletException;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Full pass of a request through each authentication filter, driven with mock servlet objects.
+ * The user lookup is served from memory, as it is from the user cache in steady state.
+ */
+class AuthenticationFilterBenchmark implements BenchmarkSuite {
+
+    private static final String PROTECTED_PATH = SecurityConstants.SERVICE_ACCOUNT_BASE_PATH + "/list";
+
+    @Override
+    public Map<String, Callable<Object>> operations() {
+        JwtService jwtService = BenchmarkFixtures.jwtService();
+        UserSecuritySnapshot user = BenchmarkFixtures.user();
+        AuthMetrics authMetrics = BenchmarkFixtures.authMetrics();
+        ServiceQuotaLimiter serviceQuotaLimiter = BenchmarkFixtures.serviceQuotaLimiter();
+        ErrorResponses errorResponses = BenchmarkFixtures.errorResponses();
+
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(
+                jwtService, username -> user, authMetrics, serviceQuotaLimiter, errorResponses);
+        ApiKeyAuthenticationFilter apiKeyFilter = new ApiKeyAuthenticationFilter(
+                ApiKeyServiceBenchmark.apiKeyService(true), authMetrics, serviceQuotaLimiter, errorResponses);
+        String bearerHeader = SecurityConstants.BEARER_PREFIX + jwtService.generateToken(user);
+
+        Map<String, Callable<Object>> operations = new LinkedHashMap<>();
+        operations.put("jwtFilter", () -> {
+            MockHttpServletRequest request = request();
+            request.addHeader(SecurityConstants.AUTHORIZATION_HEADER, bearerHeader);
+            return filter(jwtFilter, request);
+        });
+        operations.put("apiKeyFilter", () -> {
+            MockHttpServletRequest request = request();
+            request.addHeader(SecurityConstants.API_KEY_HEADER, ApiKeyServiceBenchmark.API_KEY);
+            return filter(apiKeyFilter, request);
+        });
+        return operations;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PROTECTED_PATH);
+        request.setServletPath(PROTECTED_PATH);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    private static Authentication filter(Filter filter, MockHttpServletRequest request)
+            throws ServletException, IOException {
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.bank.capp.benchmarks;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.datasource.ReplicaLagGuard;
+import com.bank.capp.exceptions.ErrorResponses;
+import com.bank.capp.metrics.AuthMetrics;
+import com.bank.capp.models.Role;
+import com.bank.capp.models.ServiceAccount;
+import com.bank.capp.models.User;
+import com.bank.capp.resilience.AuthLookupGuard;
+import com.bank.capp.security.ServiceQuotaLimiter;
+import com.bank.capp.security.UserSecuritySnapshot;
+import com.bank.capp.services.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Shared objects for the benchmarks, built the same way the application configures them
+ */
+final class BenchmarkFixtures {
+
+    // 256 bit HS256 key, for benchmarking only
+    static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    static final long JWT_EXPIRATION_MS = 3600000;
+    static final long REFRESH_EXPIRATION_MS = 604800000;
+
+    static final String USERNAME = "bench.user";
+    static final String PASSWORD = "Bench-Password-1";
+
+    private BenchmarkFixtures() {
+    }
+
+    static AuthMetrics authMetrics() {
+        return new AuthMetrics(new SimpleMeterRegistry());
+    }
+
+    static JwtService jwtService() {
+        return new JwtService(SECRET_KEY, JWT_EXPIRATION_MS, REFRESH_EXPIRATION_MS, authMetrics());
+    }
+
+    static ReplicaLagGuard replicaLagGuard() {
+        return new ReplicaLagGuard(false, Duration.ofSeconds(5), 1);
+    }
+
+    /**
+     * Lookup guard that never trips during a run; snapshots go to the given cache manager if it has them
+     */
+    static AuthLookupGuard authLookupGuard(CacheManager cacheManager) {
+        return new AuthLookupGuard(cacheManager, Duration.ofSeconds(5), Integer.MAX_VALUE, Duration.ofSeconds(10),
+                16, 1024, 2, 1024);
+    }
+
+    static ErrorResponses errorResponses() {
+        return new ErrorResponses(new ObjectMapper());
+    }
+
+    /**
+     * Quota limiter over the given accounts; accounts without a quota of their own are unlimited
+     */
+    static ServiceQuotaLimiter serviceQuotaLimiter(ServiceAccount... accounts) {
+        return new ServiceQuotaLimiter(
+                new ConcurrentMapCacheManager(ApiConstants.SERVICE_QUOTA_CACHE),
+                InMemoryServiceAccountRepository.of(accounts),
+                replicaLagGuard(),
+                errorResponses(),
+                true,
+                0,
+                0,
+                1
+        );
+    }
+
+    static PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    static UserSecuritySnapshot user() {
+        return UserSecuritySnapshot.from(User.builder()
+                .id(1L)
+                .username(USERNAME)
+                .email("bench.user@example.com")
+                .password("{bcrypt}unused")
+                .role(Role.USER)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build());
+    }
+}
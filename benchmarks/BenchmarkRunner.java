@@ -0,0 +1,195 @@
+package com.bank.capp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the authentication benchmarks single threaded and with one thread per core, writing one
+ * JSON result file per thread count. Every operation gets {@link #WARMUP_ITERATIONS} unmeasured
+ * and {@link #MEASUREMENT_ITERATIONS} measured iterations of {@link #ITERATION_TIME}; each thread
+ * calls it back to back until the iteration ends. Allocation per operation is taken from the
+ * measuring threads' allocation counters and GC counts from the collector beans, in place of
+ * a GC profiler.
+ *
+ * All suites share one JVM, so a suite measured after others runs on code they already profiled.
+ * Compare numbers from runs of the same include pattern only.
+ *
+ * Usage: {@code BenchmarkRunner [include-regex] [output-dir]}
+ */
+public final class BenchmarkRunner {
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final Duration ITERATION_TIME = Duration.ofSeconds(1);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Written only when an operation returns the impossible value, so results stay live
+    private static volatile Object sink;
+
+    private static final Map<String, Supplier<BenchmarkSuite>> SUITES = new LinkedHashMap<>();
+
+    static {
+        SUITES.put("JwtServiceBenchmark", JwtServiceBenchmark::new);
+        SUITES.put("AuthenticationFilterBenchmark", AuthenticationFilterBenchmark::new);
+        SUITES.put("ApiKeyServiceBenchmark", ApiKeyServiceBenchmark::new);
+        SUITES.put("PasswordEncoderBenchmark", PasswordEncoderBenchmark::new);
+        SUITES.put("AuthMetricsBenchmark", AuthMetricsBenchmark::new);
+        SUITES.put("ServiceQuotaBenchmark", ServiceQuotaBenchmark::new);
+        SUITES.put("FailurePathBenchmark", FailurePathBenchmark::new);
+    }
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Score of one operation at one thread count
+     *
+     * @param score mean time per operation over the measured iterations, in nanoseconds
+     */
+    public record Result(String benchmark, int threads, double score, double scoreMin, double scoreMax,
+                  long operations, double bytesPerOperation, long gcCount, String unit) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Pattern include = Pattern.compile(args.length > 0 ? args[0] : ".*");
+        Path outputDir = Path.of(args.length > 1 ? args[1] : "target");
+        Files.createDirectories(outputDir);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] threadCounts = cores > 1 ? new int[]{1, cores} : new int[]{1};
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        for (int threads : threadCounts) {
+            List<Result> results = new ArrayList<>();
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                for (Map.Entry<String, Supplier<BenchmarkSuite>> suite : SUITES.entrySet()) {
+                    Map<String, Callable<Object>> operations = suite.getValue().get().operations();
+                    for (Map.Entry<String, Callable<Object>> operation : operations.entrySet()) {
+                        String name = suite.getKey() + "." + operation.getKey();
+                        if (include.matcher(name).find()) {
+                            Result result = measure(name, operation.getValue(), threads, pool);
+                            results.add(result);
+                            System.out.printf("%-70s t%-3d %14.1f ns/op %10.1f B/op%n",
+                                    name, threads, result.score(), result.bytesPerOperation());
+                        }
+                    }
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            Path output = outputDir.resolve("bench-result-t" + threads + ".json");
+            objectMapper.writeValue(output.toFile(), results);
+            System.out.println("Wrote " + output);
+        }
+    }
+
+    private static Result measure(String name, Callable<Object> operation, int threads, ExecutorService pool)
+            throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(operation, threads, pool);
+        }
+
+        long gcBefore = gcCount();
+        double[] scores = new double[MEASUREMENT_ITERATIONS];
+        long operations = 0;
+        long allocated = 0;
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            long[] totals = iteration(operation, threads, pool);
+            operations += totals[0];
+            scores[i] = totals[0] == 0 ? Double.NaN : (double) totals[1] / totals[0];
+            allocated += totals[2];
+        }
+
+        double sum = 0;
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (double score : scores) {
+            sum += score;
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+        }
+        return new Result(name, threads, sum / scores.length, min, max, operations,
+                operations == 0 ? 0 : (double) allocated / operations, gcCount() - gcBefore, "ns/op");
+    }
+
+    /**
+     * Run the operation on every thread for one iteration
+     *
+     * @return operations completed, thread nanoseconds spent on them and bytes allocated, summed over the threads
+     */
+    private static long[] iteration(Callable<Object> operation, int threads, ExecutorService pool) throws Exception {
+        Iteration control = new Iteration();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                long threadId = Thread.currentThread().getId();
+                ready.countDown();
+                start.await();
+
+                long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+                long begin = System.nanoTime();
+                long count = 0;
+                while (control.running) {
+                    Object result = operation.call();
+                    if (result == control) {
+                        sink = result;
+                    }
+                    count++;
+                }
+                long elapsed = System.nanoTime() - begin;
+                return new long[]{count, elapsed, THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore};
+            }));
+        }
+
+        ready.await();
+        start.countDown();
+        Thread.sleep(ITERATION_TIME.toMillis());
+        control.running = false;
+
+        long[] totals = new long[3];
+        for (Future<long[]> future : futures) {
+            long[] threadTotals = future.get();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += threadTotals[i];
+            }
+        }
+        return totals;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(collector.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    /**
+     * Stop flag of one iteration, read by every measuring thread after each operation
+     */
+    private static final class Iteration {
+        private volatile boolean running = true;
+    }
+}
@@ -0,0 +1,17 @@
+package com.bank.capp.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * A group of operations measured by {@link BenchmarkRunner}. The suite is set up once
+ * and its operations are shared by every measuring thread.
+ */
+interface BenchmarkSuite {
+
+    /**
+     * Operations by name, in report order. Each returns its result so the work
+     * cannot be dropped as dead code.
+     */
+    Map<String, Callable<Object>> operations() throws Exception;
+}
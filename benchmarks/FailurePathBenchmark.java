@@ -0,0 +1,49 @@
+package com.bank.capp.benchmarks;
+
+import com.bank.capp.exceptions.AuthFailure;
+import com.bank.capp.exceptions.AuthenticationFailureException;
+import com.bank.capp.exceptions.ErrorResponses;
+import com.bank.capp.models.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Cost of rejecting a refresh with an invalid token, from throw to response body:
+ * the former IllegalArgumentException with a per-request ErrorResponse against the
+ * stackless exception with a pre-serialized body
+ */
+class FailurePathBenchmark implements BenchmarkSuite {
+
+    @Override
+    public Map<String, Callable<Object>> operations() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        ErrorResponses errorResponses = new ErrorResponses(objectMapper);
+
+        Map<String, Callable<Object>> operations = new LinkedHashMap<>();
+        operations.put("illegalArgumentWithSerializedBody", () -> {
+            try {
+                throw new IllegalArgumentException(AuthFailure.INVALID_REFRESH_TOKEN.getMessage());
+            } catch (IllegalArgumentException e) {
+                return objectMapper.writeValueAsBytes(ErrorResponse.builder()
+                        .timestamp(LocalDateTime.now())
+                        .status(400)
+                        .error("Bad Request")
+                        .message(e.getMessage())
+                        .build());
+            }
+        });
+        operations.put("stacklessWithPreparedBody", () -> {
+            try {
+                throw new AuthenticationFailureException(AuthFailure.INVALID_REFRESH_TOKEN);
+            } catch (AuthenticationFailureException e) {
+                return errorResponses.toResponse(e.getFailure());
+            }
+        });
+        return operations;
+    }
+}
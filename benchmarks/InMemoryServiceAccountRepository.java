@@ -0,0 +1,54 @@
+package com.bank.capp.benchmarks;
+
+import com.bank.capp.models.ServiceAccount;
+import com.bank.capp.repository.ServiceAccountRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map backed ServiceAccountRepository covering the methods used by API key validation,
+ * so benchmarks measure the service rather than a database round trip
+ */
+final class InMemoryServiceAccountRepository {
+
+    private InMemoryServiceAccountRepository() {
+    }
+
+    static ServiceAccountRepository of(ServiceAccount... accounts) {
+        Map<Long, ServiceAccount> byId = new ConcurrentHashMap<>();
+        Map<String, ServiceAccount> byHash = new ConcurrentHashMap<>();
+        for (ServiceAccount account : accounts) {
+            byId.put(account.getId(), account);
+            byHash.put(account.getApiKeyHash(), account);
+        }
+
+        return (ServiceAccountRepository) Proxy.newProxyInstance(
+                ServiceAccountRepository.class.getClassLoader(),
+                new Class<?>[]{ServiceAccountRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByApiKeyHash" -> Optional.ofNullable(byHash.get((String) args[0]));
+                    case "findById" -> Optional.ofNullable(byId.get((Long) args[0]));
+                    case "save" -> {
+                        ServiceAccount account = (ServiceAccount) args[0];
+                        byId.put(account.getId(), account);
+                        byHash.put(account.getApiKeyHash(), account);
+                        yield account;
+                    }
+                    case "updateLastUsedAt" -> {
+                        ServiceAccount account = byId.get((Long) args[0]);
+                        if (account != null) {
+                            account.setLastUsedAt((LocalDateTime) args[1]);
+                        }
+                        yield account != null ? 1 : 0;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryServiceAccountRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
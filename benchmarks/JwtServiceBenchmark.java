@@ -0,0 +1,28 @@
+package com.bank.capp.benchmarks;
+
+import com.bank.capp.security.UserSecuritySnapshot;
+import com.bank.capp.services.JwtService;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Token signing and verification in JwtService
+ */
+class JwtServiceBenchmark implements BenchmarkSuite {
+
+    @Override
+    public Map<String, Callable<Object>> operations() {
+        JwtService jwtService = BenchmarkFixtures.jwtService();
+        UserSecuritySnapshot user = BenchmarkFixtures.user();
+        String accessToken = jwtService.generateToken(user);
+
+        Map<String, Callable<Object>> operations = new LinkedHashMap<>();
+        operations.put("generateToken", () -> jwtService.generateToken(user));
+        operations.put("generateRefreshToken", () -> jwtService.generateRefreshToken(user));
+        operations.put("extractUsername", () -> jwtService.extractUsername(accessToken));
+        operations.put("isTokenValid", () -> jwtService.isTokenValid(accessToken, user));
+        return operations;
+    }
+}
@@ -0,0 +1,24 @@
+package com.bank.capp.benchmarks;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Cost of the configured PasswordEncoder, which dominates login and registration latency
+ */
+class PasswordEncoderBenchmark implements BenchmarkSuite {
+
+    @Override
+    public Map<String, Callable<Object>> operations() {
+        PasswordEncoder passwordEncoder = BenchmarkFixtures.passwordEncoder();
+        String encodedPassword = passwordEncoder.encode(BenchmarkFixtures.PASSWORD);
+
+        Map<String, Callable<Object>> operations = new LinkedHashMap<>();
+        operations.put("encode", () -> passwordEncoder.encode(BenchmarkFixtures.PASSWORD));
+        operations.put("matches", () -> passwordEncoder.matches(BenchmarkFixtures.PASSWORD, encodedPassword));
+        return operations;
+    }
+}
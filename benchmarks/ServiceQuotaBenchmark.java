@@ -0,0 +1,39 @@
+package com.bank.capp.benchmarks;
+
+import com.bank.capp.models.ServiceAccount;
+import com.bank.capp.security.ServiceQuotaLimiter;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Cost of charging a request to a service account quota, including the cache lookup.
+ * The quota is far above what the benchmark can reach, so every call takes the admit path;
+ * the run with one thread per core shows the compare-and-set under contention.
+ */
+class ServiceQuotaBenchmark implements BenchmarkSuite {
+
+    @Override
+    public Map<String, Callable<Object>> operations() {
+        ServiceAccount account = ServiceAccount.builder()
+                .id(1L)
+                .serviceName("bench-service")
+                .description("Benchmark service")
+                .apiKeyHash("unused")
+                .active(true)
+                .createdAt(LocalDateTime.now())
+                .rateLimitPerSecond(1_000_000_000)
+                .rateLimitBurst(1_000_000_000)
+                .build();
+        ServiceQuotaLimiter serviceQuotaLimiter = BenchmarkFixtures.serviceQuotaLimiter(account);
+
+        Map<String, Callable<Object>> operations = new LinkedHashMap<>();
+        operations.put("acquireByAccount",
+                () -> serviceQuotaLimiter.quotaFor(account).tryAcquire(System.nanoTime()));
+        operations.put("acquireById",
+                () -> serviceQuotaLimiter.quotaFor(account.getId()).tryAcquire(System.nanoTime()));
+        return operations;
+    }
+}
@@ -0,0 +1,24 @@
+package com.bank.capp.config;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.security.ScopeAuthorizationInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Endpoint authorization through the compiled scope rules instead of method security
+ */
+@Configuration
+@RequiredArgsConstructor
+public class AuthorizationConfig implements WebMvcConfigurer {
+
+    private final ScopeAuthorizationInterceptor scopeAuthorizationInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(scopeAuthorizationInterceptor)
+                .addPathPatterns(ApiConstants.API_BASE_PATH + "/**");
+    }
+}
@@ -0,0 +1,104 @@
+package com.bank.capp.config;
+
+import com.bank.capp.constants.ApiConstants;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bounded, expiring caches for the authentication lookups.
+ * Statistics are recorded so hit ratios are published through the cache metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Value("${application.cache.users.max-size:10000}")
+    private long userCacheMaxSize;
+
+    @Value("${application.cache.users.ttl:10m}")
+    private Duration userCacheTtl;
+
+    @Value("${application.cache.api-keys.max-size:10000}")
+    private long apiKeyCacheMaxSize;
+
+    @Value("${application.cache.api-keys.ttl:10m}")
+    private Duration apiKeyCacheTtl;
+
+    @Value("${application.cache.service-logins.max-size:10000}")
+    private long serviceLoginCacheMaxSize;
+
+    @Value("${application.cache.service-logins.ttl:1h}")
+    private Duration serviceLoginCacheTtl;
+
+    @Value("${application.cache.service-quotas.max-size:10000}")
+    private long serviceQuotaCacheMaxSize;
+
+    @Value("${application.cache.service-quotas.idle-ttl:1h}")
+    private Duration serviceQuotaCacheIdleTtl;
+
+    @Value("${application.cache.refresh-responses.max-size:10000}")
+    private long refreshResponseCacheMaxSize;
+
+    @Value("${application.security.refresh-reuse.window:5s}")
+    private Duration refreshReuseWindow;
+
+    @Value("${application.resilience.snapshots.max-size:100000}")
+    private long snapshotCacheMaxSize;
+
+    @Value("${application.resilience.snapshots.stale-window:1h}")
+    private Duration snapshotStaleWindow;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the bounded caches registered below exist; no unbounded caches on demand
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(ApiConstants.USER_CACHE, Caffeine.newBuilder()
+                .maximumSize(userCacheMaxSize)
+                .expireAfterWrite(userCacheTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(ApiConstants.API_KEY_CACHE, Caffeine.newBuilder()
+                .maximumSize(apiKeyCacheMaxSize)
+                .expireAfterWrite(apiKeyCacheTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(ApiConstants.SERVICE_LOGIN_CACHE, Caffeine.newBuilder()
+                .maximumSize(serviceLoginCacheMaxSize)
+                .expireAfterWrite(serviceLoginCacheTtl)
+                .recordStats()
+                .build());
+        // Quota state carries the request counters, so it only expires once idle
+        cacheManager.registerCustomCache(ApiConstants.SERVICE_QUOTA_CACHE, Caffeine.newBuilder()
+                .maximumSize(serviceQuotaCacheMaxSize)
+                .expireAfterAccess(serviceQuotaCacheIdleTtl)
+                .recordStats()
+                .build());
+        // Refresh responses reused for retries of the same refresh token within the window
+        cacheManager.registerCustomCache(ApiConstants.REFRESH_RESPONSE_CACHE, Caffeine.newBuilder()
+                .maximumSize(refreshResponseCacheMaxSize)
+                .expireAfterWrite(refreshReuseWindow)
+                .recordStats()
+                .build());
+        // Last-known-good principals for degraded mode; refreshed by every successful lookup
+        cacheManager.registerCustomCache(ApiConstants.USER_SNAPSHOT_CACHE, Caffeine.newBuilder()
+                .maximumSize(snapshotCacheMaxSize)
+                .expireAfterWrite(snapshotStaleWindow)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(ApiConstants.API_KEY_SNAPSHOT_CACHE, Caffeine.newBuilder()
+                .maximumSize(snapshotCacheMaxSize)
+                .expireAfterWrite(snapshotStaleWindow)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bank.capp.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Defers creation of springdoc's beans until the API docs are first requested, so new
+ * nodes serve logins sooner. Admin-only controllers are marked {@code @Lazy} directly.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "application.startup.lazy-admin-beans", havingValue = "true", matchIfMissing = true)
+public class FastStartConfig {
+
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    @Bean
+    public static BeanFactoryPostProcessor lazySpringdocBeans() {
+        return beanFactory -> {
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+                String className = definition.getBeanClassName();
+                if (className == null && definition.getFactoryBeanName() != null) {
+                    className = beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName();
+                }
+                if (className != null && className.startsWith(SPRINGDOC_PACKAGE)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+}
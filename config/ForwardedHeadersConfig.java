@@ -0,0 +1,54 @@
+package com.bank.capp.config;
+
+import org.apache.catalina.valves.RemoteIpValve;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the client address of requests that arrive through a trusted proxy from the
+ * X-Forwarded-For header, so {@code getRemoteAddr()}, and with it the per-address login
+ * throttle, sees the client instead of the load balancer. The header is ignored when
+ * any other peer sends it, so clients cannot choose their own address.
+ *
+ * Off unless enabled, and then only the addresses listed in
+ * {@code application.security.forwarded-headers.trusted-proxies} are trusted; Tomcat's
+ * default of every private and loopback peer would let any internal caller pick the
+ * throttle key it is charged to. Leave {@code server.forward-headers-strategy} unset
+ * while this is enabled.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "application.security.forwarded-headers.enabled", havingValue = "true")
+public class ForwardedHeadersConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> forwardedHeadersCustomizer(
+            @Value("${application.security.forwarded-headers.trusted-proxies:}") List<String> trustedProxies
+    ) {
+        String internalProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .map(Pattern::quote)
+                .collect(Collectors.joining("|"));
+        if (internalProxies.isEmpty()) {
+            throw new IllegalStateException(
+                    "application.security.forwarded-headers.trusted-proxies must list the proxy addresses to trust");
+        }
+
+        return factory -> {
+            RemoteIpValve valve = new RemoteIpValve();
+            valve.setRemoteIpHeader("X-Forwarded-For");
+            valve.setProtocolHeader("X-Forwarded-Proto");
+            valve.setInternalProxies(internalProxies);
+            factory.addEngineValves(valve);
+        };
+    }
+}
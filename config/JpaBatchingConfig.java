@@ -0,0 +1,30 @@
+package com.bank.capp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDBC batching for the auth write paths.
+ *
+ * With sequence generated ids Hibernate can defer inserts to flush time, so token
+ * issuance, bulk provisioning and key rotation send their inserts and updates as
+ * ordered JDBC batches instead of one round trip per row. On PostgreSQL, also set
+ * {@code reWriteBatchedInserts=true} on the driver to turn a batch into multi-row inserts.
+ */
+@Configuration
+public class JpaBatchingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(
+            @Value("${application.jpa.batch-size:50}") int batchSize
+    ) {
+        return properties -> {
+            properties.put("hibernate.jdbc.batch_size", batchSize);
+            properties.put("hibernate.order_inserts", true);
+            properties.put("hibernate.order_updates", true);
+            properties.put("hibernate.jdbc.batch_versioned_data", true);
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.bank.capp.config;
+
+import com.bank.capp.metrics.AuthMetrics;
+import com.bank.capp.metrics.TimedPasswordEncoder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Wrap the configured PasswordEncoder so every encode and match is timed.
+     * Static so the post processor is registered without initializing this configuration early.
+     */
+    @Bean
+    public static BeanPostProcessor timedPasswordEncoderPostProcessor(ObjectProvider<AuthMetrics> authMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof PasswordEncoder encoder && !(bean instanceof TimedPasswordEncoder)) {
+                    return new TimedPasswordEncoder(encoder, authMetrics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
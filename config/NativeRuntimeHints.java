@@ -0,0 +1,64 @@
+package com.bank.capp.config;
+
+import com.bank.capp.events.UserSecurityChangeListener;
+import com.bank.capp.models.ApiKeyResponse;
+import com.bank.capp.models.ErrorResponse;
+import com.bank.capp.models.RegisterRequest;
+import com.bank.capp.models.ServiceAccountResponse;
+import com.bank.capp.models.UserImportResult;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Reflection hints for a GraalVM native image that Spring AOT cannot infer on its own.
+ *
+ * jjwt 0.11 creates its builder, parser and claims implementations and finds its JSON
+ * serializer by class name; the NDJSON endpoints, the bulk import and the prepared error
+ * responses serialize models with the ObjectMapper directly rather than through a controller signature; and
+ * Hibernate instantiates the entity listener reflectively. Controller and entity types
+ * are registered by Spring AOT itself.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeRuntimeHints.Registrar.class)
+public class NativeRuntimeHints {
+
+    private static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    );
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+
+            bindingRegistrar.registerReflectionHints(hints.reflection(),
+                    UserImportResult.class, ApiKeyResponse.class, RegisterRequest.class, ErrorResponse.class,
+                    ServiceAccountResponse.class);
+
+            hints.reflection().registerType(UserSecurityChangeListener.class,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+    }
+}
@@ -10,7 +10,6 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -21,7 +20,6 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
@@ -59,6 +57,9 @@ public class SecurityConfig {
                 // Service authentication endpoints (public)
                 .requestMatchers("/api/v1/service-auth/**").permitAll()
                 
+                // Metrics for admins and monitoring service accounts
+                .requestMatchers("/actuator/metrics/**", "/actuator/prometheus").hasAnyRole("ADMIN", "SERVICE")
+                
                 // API endpoints requiring authentication
                 .requestMatchers("/api/v1/**").authenticated()
                 
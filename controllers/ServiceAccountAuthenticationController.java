@@ -2,9 +2,12 @@ package com.bank.capp.controllers;
 
 import com.bank.capp.constants.ApiConstants;
 import com.bank.capp.models.*;
+import com.bank.capp.security.OpenEndpoint;
+import com.bank.capp.services.LoginThrottle;
 import com.bank.capp.services.ServiceAccountAuthenticationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -12,17 +15,21 @@ import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping(ApiConstants.API_BASE_PATH + "/service-auth")
+@OpenEndpoint
 @RequiredArgsConstructor
 @Tag(name = "Service Account Authentication", description = "Self-service authentication for service accounts")
 public class ServiceAccountAuthenticationController {
 
     private final ServiceAccountAuthenticationService serviceAuthService;
+    private final LoginThrottle loginThrottle;
 
     @PostMapping("/login")
     @Operation(summary = "Service account login", description = "Authenticate service account with API key and get JWT tokens")
     public ResponseEntity<ServiceAccountAuthenticationResponse> login(
-            @Valid @RequestBody ServiceAccountLoginRequest request
+            @Valid @RequestBody ServiceAccountLoginRequest request,
+            HttpServletRequest httpRequest
     ) {
+        loginThrottle.checkServiceLogin(request.getServiceName(), httpRequest.getRemoteAddr());
         return ResponseEntity.ok(serviceAuthService.authenticate(request));
     }
 
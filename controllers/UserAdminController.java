@@ -0,0 +1,78 @@
+package com.bank.capp.controllers;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.models.KeysetPage;
+import com.bank.capp.models.PrincipalType;
+import com.bank.capp.models.Role;
+import com.bank.capp.models.Scope;
+import com.bank.capp.models.SessionResponse;
+import com.bank.capp.security.RequiresScope;
+import com.bank.capp.services.AdminListingService;
+import com.bank.capp.services.UserImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@Lazy
+@RestController
+@RequestMapping(ApiConstants.API_BASE_PATH + "/users")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "User Administration", description = "Bulk user management APIs")
+public class UserAdminController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
+    private final UserImportService userImportService;
+    private final AdminListingService adminListingService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(value = "/import", consumes = {CSV, NDJSON}, produces = NDJSON)
+    @RequiresScope(value = Scope.USERS_WRITE, roles = Role.ADMIN)
+    @Operation(summary = "Bulk import users",
+            description = "Stream a CSV or JSON Lines file of users and receive one result line per row (Admin or scope users:write)")
+    public ResponseEntity<StreamingResponseBody> importUsers(HttpServletRequest request) {
+        UserImportService.Format format = request.getContentType().startsWith(CSV)
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.JSON_LINES;
+
+        StreamingResponseBody body = outputStream -> userImportService.importUsers(
+                request.getInputStream(),
+                format,
+                result -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(result));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+        );
+
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping("/{id}/sessions")
+    @RequiresScope(roles = Role.ADMIN)
+    @Operation(summary = "List user sessions",
+            description = "Page through the live refresh sessions of a user in id order (Admin only)")
+    public ResponseEntity<KeysetPage<SessionResponse>> listSessions(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + ApiConstants.DEFAULT_PAGE_SIZE) int limit
+    ) {
+        return ResponseEntity.ok(adminListingService.listSessions(PrincipalType.USER, id, after, limit));
+    }
+}
@@ -0,0 +1,91 @@
+package com.bank.capp.datasource;
+
+import com.bank.capp.models.PrincipalType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Keeps reads of recently written principals on the primary while replicas may still lag.
+ *
+ * Writers record the keys they touched; for {@code max-lag} afterwards, lookups of those keys
+ * bypass the replicas. Other nodes record the write when its cache invalidation reaches them,
+ * so their first reload goes to the primary as well. Refresh tokens are not tracked here: they are
+ * written on whichever node handled the login, so token lookups always read the primary. Does nothing
+ * unless replica routing is enabled.
+ */
+@Component
+public class ReplicaLagGuard {
+
+    private final boolean enabled;
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReplicaLagGuard(
+            @Value("${application.datasource.replica.enabled:false}") boolean enabled,
+            @Value("${application.datasource.replica.max-lag:5s}") Duration maxLag,
+            @Value("${application.datasource.replica.max-tracked-writes:100000}") long maxTrackedWrites
+    ) {
+        this.enabled = enabled;
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(maxTrackedWrites)
+                .expireAfterWrite(maxLag)
+                .build();
+    }
+
+    /**
+     * Note a write so lookups of the key go to the primary for the next max-lag
+     */
+    public void recordWrite(String key) {
+        if (enabled) {
+            recentWrites.put(key, Boolean.TRUE);
+        }
+    }
+
+    public boolean recentlyWritten(String key) {
+        return enabled && recentWrites.getIfPresent(key) != null;
+    }
+
+    /**
+     * Run a lookup on a replica, or on the primary if the key was written within max-lag
+     */
+    public <T> T read(String key, Supplier<T> lookup) {
+        return recentlyWritten(key) ? ReplicaRoutingDataSource.onPrimary(lookup) : lookup.get();
+    }
+
+    /**
+     * Run a lookup of a row that is known to exist as {@link #read} does, retrying a miss on the
+     * primary; the row may have been inserted moments ago on another node
+     */
+    public <T> Optional<T> readExisting(String key, Supplier<Optional<T>> lookup) {
+        if (recentlyWritten(key)) {
+            return ReplicaRoutingDataSource.onPrimary(lookup);
+        }
+        Optional<T> result = lookup.get();
+        return result.isEmpty() && enabled ? ReplicaRoutingDataSource.onPrimary(lookup) : result;
+    }
+
+    public <T> T onPrimary(Supplier<T> lookup) {
+        return ReplicaRoutingDataSource.onPrimary(lookup);
+    }
+
+    public static String userKey(String username) {
+        return "user:" + username;
+    }
+
+    public static String serviceAccountKey(String serviceName) {
+        return "service:" + serviceName;
+    }
+
+    public static String principalKey(PrincipalType principalType, Long principalId) {
+        return principalType.name() + ":" + principalId;
+    }
+
+    public static String apiKeyKey(String apiKeyHash) {
+        return "api-key:" + apiKeyHash;
+    }
+}
@@ -0,0 +1,8 @@
+-- V10__Cache_Invalidation_Clock.sql
+-- Stamp cache invalidations with the time of the insert rather than the start of its transaction
+
+-- Nodes poll by id now; created_at only decides when a row is old enough to purge,
+-- so a long transaction must not make its rows look older than they are
+ALTER TABLE cache_invalidations ALTER COLUMN created_at SET DEFAULT clock_timestamp();
+
+COMMENT ON COLUMN cache_invalidations.created_at IS 'Insert time, used to purge applied rows';
@@ -0,0 +1,15 @@
+-- V3__Cache_Invalidations.sql
+-- Cross-node cache invalidation log polled by every application node
+
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id BIGSERIAL PRIMARY KEY,
+    cache_name VARCHAR(100) NOT NULL,
+    cache_key VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Nodes poll and purge by creation time
+CREATE INDEX IF NOT EXISTS idx_cache_invalidations_created_at ON cache_invalidations(created_at);
+
+-- Comment for documentation
+COMMENT ON TABLE cache_invalidations IS 'Stores cache evictions broadcast to all application nodes';
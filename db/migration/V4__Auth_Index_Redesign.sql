@@ -0,0 +1,32 @@
+-- V4__Auth_Index_Redesign.sql
+-- Replace indexes that duplicate UNIQUE constraints with partial indexes for the hot predicates
+
+-- Every UNIQUE column already has an implicit unique index; the explicit copies
+-- only doubled the write cost of each insert and update
+DROP INDEX IF EXISTS idx_users_username;
+DROP INDEX IF EXISTS idx_users_email;
+DROP INDEX IF EXISTS idx_service_accounts_service_name;
+DROP INDEX IF EXISTS idx_service_accounts_api_key_hash;
+DROP INDEX IF EXISTS idx_refresh_tokens_token;
+DROP INDEX IF EXISTS idx_sa_refresh_tokens_token;
+
+-- Principal lookups only ever look for live tokens (revokeAllByUserId / revokeAllByServiceAccountId),
+-- so revoked rows waiting for the purge job stay out of the index. Principals are deactivated,
+-- never deleted, so the ON DELETE CASCADE foreign keys do not need a full index.
+DROP INDEX IF EXISTS idx_refresh_tokens_user_id;
+DROP INDEX IF EXISTS idx_sa_refresh_tokens_service_account_id;
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_id_live
+    ON refresh_tokens (user_id) WHERE revoked = false;
+CREATE INDEX IF NOT EXISTS idx_sa_refresh_tokens_service_account_id_live
+    ON service_account_refresh_tokens (service_account_id) WHERE revoked = false;
+
+-- The purge job deletes by expiry, revoked or not
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expiry_date
+    ON refresh_tokens (expiry_date);
+CREATE INDEX IF NOT EXISTS idx_sa_refresh_tokens_expiry_date
+    ON service_account_refresh_tokens (expiry_date);
+
+-- Listing active service accounts (findAllByActive(true)) touches only the live accounts
+CREATE INDEX IF NOT EXISTS idx_service_accounts_active
+    ON service_accounts (id) WHERE active = true;
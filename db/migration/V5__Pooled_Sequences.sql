@@ -0,0 +1,10 @@
+-- V5__Pooled_Sequences.sql
+-- Let Hibernate reserve ids in blocks of 50 so inserts no longer wait for a generated key
+
+-- Must match allocationSize of the entity @SequenceGenerator mappings. The pooled
+-- optimizer hands out (value - 49 .. value], so rows inserted with the column
+-- default (bulk user import) still get ids no Hibernate session will reuse.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE service_accounts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE refresh_tokens_id_seq INCREMENT BY 50;
+ALTER SEQUENCE service_account_refresh_tokens_id_seq INCREMENT BY 50;
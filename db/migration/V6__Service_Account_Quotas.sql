@@ -0,0 +1,9 @@
+-- V6__Service_Account_Quotas.sql
+-- Per service account request quota enforced by the authentication filters
+
+-- NULL keeps the account on the configured default quota
+ALTER TABLE service_accounts ADD COLUMN IF NOT EXISTS rate_limit_per_second INTEGER;
+ALTER TABLE service_accounts ADD COLUMN IF NOT EXISTS rate_limit_burst INTEGER;
+
+COMMENT ON COLUMN service_accounts.rate_limit_per_second IS 'Sustained requests per second, NULL for the default quota';
+COMMENT ON COLUMN service_accounts.rate_limit_burst IS 'Requests allowed back to back, NULL for one second worth';
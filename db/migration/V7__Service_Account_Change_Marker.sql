@@ -0,0 +1,15 @@
+-- V7__Service_Account_Change_Marker.sql
+-- Change marker for the incremental refresh of the API key cache
+
+ALTER TABLE service_accounts ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+
+UPDATE service_accounts
+SET updated_at = COALESCE(revoked_at, created_at, CURRENT_TIMESTAMP)
+WHERE updated_at IS NULL;
+
+ALTER TABLE service_accounts ALTER COLUMN updated_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE service_accounts ALTER COLUMN updated_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_service_accounts_updated_at ON service_accounts(updated_at);
+
+COMMENT ON COLUMN service_accounts.updated_at IS 'Last change to anything but last_used_at';
@@ -0,0 +1,7 @@
+-- V8__Service_Account_Scopes.sql
+-- Permissions of service accounts, embedded in their access tokens
+
+-- Bitmask of com.bank.capp.models.Scope; existing accounts start without scopes
+ALTER TABLE service_accounts ADD COLUMN IF NOT EXISTS scopes BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN service_accounts.scopes IS 'Scope bitmask, bit numbers are fixed in the Scope enum';
@@ -0,0 +1,12 @@
+-- V9__Session_Keyset_Indexes.sql
+-- Keyset listing of live sessions per principal
+
+-- Adding id lets a session page (principal = ? AND id > ? ORDER BY id LIMIT n) read the
+-- index in order and stop after n entries; revoke-all still uses the leading column
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_id_id_live
+    ON refresh_tokens (user_id, id) WHERE revoked = false;
+DROP INDEX IF EXISTS idx_refresh_tokens_user_id_live;
+
+CREATE INDEX IF NOT EXISTS idx_sa_refresh_tokens_service_account_id_id_live
+    ON service_account_refresh_tokens (service_account_id, id) WHERE revoked = false;
+DROP INDEX IF EXISTS idx_sa_refresh_tokens_service_account_id_live;
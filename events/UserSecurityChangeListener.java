@@ -0,0 +1,25 @@
+package com.bank.capp.events;
+
+import com.bank.capp.models.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns every update or removal of a {@link User}
+ * (role change, disable, lock, password change) into a {@link UserSecurityChangedEvent}
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSecurityChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(user.getId(), user.getUsername()));
+    }
+}
@@ -0,0 +1,14 @@
+package com.bank.capp.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a user's security-relevant state (role, flags, password) may have changed
+ */
+@Getter
+@AllArgsConstructor
+public class UserSecurityChangedEvent {
+    private final Long userId;
+    private final String username;
+}
@@ -0,0 +1,35 @@
+package com.bank.capp.exceptions;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.constants.SecurityConstants;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Fixed authentication failure responses. The body of each is serialized once at
+ * startup by {@link ErrorResponses}, so rejecting a request allocates no response.
+ */
+@Getter
+public enum AuthFailure {
+
+    BAD_CREDENTIALS(HttpStatus.UNAUTHORIZED, "Unauthorized", SecurityConstants.INVALID_CREDENTIALS),
+    INVALID_SERVICE_CREDENTIALS(HttpStatus.BAD_REQUEST, "Bad Request", ApiConstants.INVALID_SERVICE_CREDENTIALS),
+    SERVICE_ACCOUNT_INACTIVE(HttpStatus.BAD_REQUEST, "Bad Request", ApiConstants.SERVICE_ACCOUNT_INACTIVE),
+    INVALID_REFRESH_TOKEN(HttpStatus.BAD_REQUEST, "Bad Request", ApiConstants.INVALID_REFRESH_TOKEN),
+    REFRESH_TOKEN_REVOKED(HttpStatus.BAD_REQUEST, "Bad Request", ApiConstants.REFRESH_TOKEN_REVOKED),
+    REFRESH_TOKEN_EXPIRED(HttpStatus.BAD_REQUEST, "Bad Request", ApiConstants.REFRESH_TOKEN_EXPIRED),
+    TOO_MANY_LOGIN_ATTEMPTS(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", ApiConstants.TOO_MANY_LOGIN_ATTEMPTS),
+    ACCESS_DENIED(HttpStatus.FORBIDDEN, "Forbidden", ApiConstants.ACCESS_DENIED),
+    QUOTA_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", ApiConstants.QUOTA_EXCEEDED),
+    AUTHENTICATION_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ApiConstants.AUTHENTICATION_UNAVAILABLE);
+
+    private final HttpStatus status;
+    private final String error;
+    private final String message;
+
+    AuthFailure(HttpStatus status, String error, String message) {
+        this.status = status;
+        this.error = error;
+        this.message = message;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bank.capp.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Raised when presented credentials or tokens are rejected.
+ *
+ * Rejections are the common case under attack and their origin is always the same few
+ * lines, so no stack trace is captured. Extends IllegalArgumentException so callers
+ * that treat rejections as bad input keep working.
+ */
+@Getter
+public class AuthenticationFailureException extends IllegalArgumentException {
+
+    private final AuthFailure failure;
+
+    public AuthenticationFailureException(AuthFailure failure) {
+        super(failure.getMessage());
+        this.failure = failure;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,69 @@
+package com.bank.capp.exceptions;
+
+import com.bank.capp.models.ErrorResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Error bodies of the fixed authentication failures, serialized once at startup.
+ * The bodies carry no timestamp; the Date header of the response gives the time.
+ */
+@Component
+public class ErrorResponses {
+
+    private final Map<AuthFailure, byte[]> bodies = new EnumMap<>(AuthFailure.class);
+
+    public ErrorResponses(ObjectMapper objectMapper) {
+        for (AuthFailure failure : AuthFailure.values()) {
+            try {
+                bodies.put(failure, objectMapper.writeValueAsBytes(ErrorResponse.builder()
+                        .status(failure.getStatus().value())
+                        .error(failure.getError())
+                        .message(failure.getMessage())
+                        .build()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize error response " + failure, e);
+            }
+        }
+    }
+
+    /**
+     * Response for a handler
+     */
+    public ResponseEntity<byte[]> toResponse(AuthFailure failure) {
+        return toResponseBuilder(failure).body(body(failure));
+    }
+
+    /**
+     * Response builder with status and content type set, for handlers that add headers
+     */
+    public ResponseEntity.BodyBuilder toResponseBuilder(AuthFailure failure) {
+        return ResponseEntity.status(failure.getStatus()).contentType(MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Serialized body of the failure; the array is shared and must not be modified
+     */
+    public byte[] body(AuthFailure failure) {
+        return bodies.get(failure);
+    }
+
+    /**
+     * Write the failure straight to the servlet response, for filters
+     */
+    public void write(AuthFailure failure, HttpServletResponse response) throws IOException {
+        byte[] body = bodies.get(failure);
+        response.setStatus(failure.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
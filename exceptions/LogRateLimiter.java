@@ -0,0 +1,33 @@
+package com.bank.capp.exceptions;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets a log statement through at most once per interval and counts the ones held back,
+ * so a flood of rejected requests cannot turn into a flood of log lines.
+ */
+public class LogRateLimiter {
+
+    private final long intervalNanos;
+    private final AtomicLong nextPermitNanos = new AtomicLong(System.nanoTime());
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public LogRateLimiter(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * @return -1 when the statement should be skipped, otherwise the number of
+     *         statements skipped since the last one that was let through
+     */
+    public long tryAcquire() {
+        long now = System.nanoTime();
+        long next = nextPermitNanos.get();
+        if (now - next < 0 || !nextPermitNanos.compareAndSet(next, now + intervalNanos)) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
@@ -0,0 +1,20 @@
+package com.bank.capp.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Raised when a login attempt or a quota-charged call is throttled before any credential check runs.
+ * Thrown on every rejected attempt, so no stack trace is captured.
+ */
+@Getter
+public class TooManyAttemptsException extends RuntimeException {
+
+    private final AuthFailure failure;
+    private final long retryAfterSeconds;
+
+    public TooManyAttemptsException(AuthFailure failure, long retryAfterSeconds) {
+        super(failure.getMessage(), null, false, false);
+        this.failure = failure;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,111 @@
+package com.bank.capp.grpc;
+
+import com.bank.capp.constants.SecurityConstants;
+import com.bank.capp.exceptions.AuthFailure;
+import com.bank.capp.grpc.proto.TokenServiceGrpc;
+import com.bank.capp.models.ServiceAccount;
+import com.bank.capp.security.AuthenticatedPrincipal;
+import com.bank.capp.security.ServiceQuotaLimiter;
+import com.bank.capp.services.ApiKeyService;
+import com.bank.capp.services.JwtService;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.dao.DataAccessException;
+
+import java.util.Set;
+
+/**
+ * Requires a service credential on the validation calls, as the REST filters do for the API.
+ *
+ * Callers send an API key in {@code x-api-key} or a service access token in {@code authorization}
+ * metadata; the authenticated account is made available to the handler, which charges its quota.
+ * Service login and refresh carry their own credentials and pass through. The channel itself is
+ * secured with the starter's {@code grpc.server.security.*} properties: a certificate chain and
+ * private key for TLS, and {@code client-auth=REQUIRE} with a trust store for mutual TLS.
+ */
+@Slf4j
+@GrpcGlobalServerInterceptor
+@RequiredArgsConstructor
+public class CallerAuthenticationInterceptor implements ServerInterceptor {
+
+    static final Context.Key<AuthenticatedPrincipal> CALLER = Context.key("caller");
+
+    private static final Metadata.Key<String> API_KEY =
+            Metadata.Key.of(SecurityConstants.API_KEY_HEADER, Metadata.ASCII_STRING_MARSHALLER);
+    private static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of(SecurityConstants.AUTHORIZATION_HEADER, Metadata.ASCII_STRING_MARSHALLER);
+    private static final Set<String> GUARDED_METHODS = Set.of(
+            TokenServiceGrpc.getValidateMethod().getFullMethodName(),
+            TokenServiceGrpc.getBatchValidateMethod().getFullMethodName()
+    );
+
+    private final ApiKeyService apiKeyService;
+    private final JwtService jwtService;
+    private final ServiceQuotaLimiter serviceQuotaLimiter;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call,
+            Metadata headers,
+            ServerCallHandler<ReqT, RespT> next
+    ) {
+        if (!GUARDED_METHODS.contains(call.getMethodDescriptor().getFullMethodName())) {
+            return next.startCall(call, headers);
+        }
+
+        AuthenticatedPrincipal caller;
+        try {
+            caller = authenticate(headers);
+        } catch (JwtException e) {
+            log.debug("gRPC caller token rejected: {}", e.getMessage());
+            caller = null;
+        } catch (DataAccessException e) {
+            log.warn("gRPC caller authentication unavailable: {}", e.getMessage());
+            return reject(call, AuthFailure.AUTHENTICATION_UNAVAILABLE);
+        }
+        if (caller == null) {
+            return reject(call, AuthFailure.INVALID_SERVICE_CREDENTIALS);
+        }
+        return Contexts.interceptCall(Context.current().withValue(CALLER, caller), call, headers, next);
+    }
+
+    /**
+     * The active service account behind the call's credential, or null if there is none
+     */
+    private AuthenticatedPrincipal authenticate(Metadata headers) {
+        String apiKey = headers.get(API_KEY);
+        if (apiKey != null) {
+            ServiceAccount account = apiKeyService.validateApiKey(apiKey);
+            return account != null && account.isActive() ? AuthenticatedPrincipal.serviceAccount(account) : null;
+        }
+
+        String authorization = headers.get(AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith(SecurityConstants.BEARER_PREFIX)) {
+            return null;
+        }
+        Claims claims = jwtService.parseClaims(authorization.substring(SecurityConstants.BEARER_PREFIX.length()));
+        if (!jwtService.isServiceToken(claims)) {
+            return null;
+        }
+        Long serviceAccountId = jwtService.extractServiceAccountId(claims);
+        if (serviceAccountId == null || serviceQuotaLimiter.quotaFor(serviceAccountId) == null) {
+            return null;
+        }
+        return AuthenticatedPrincipal.serviceAccount(serviceAccountId, claims.getSubject(), jwtService.extractScopes(claims));
+    }
+
+    private static <ReqT, RespT> ServerCall.Listener<ReqT> reject(ServerCall<ReqT, RespT> call, AuthFailure failure) {
+        call.close(GrpcExceptionAdvice.statusOf(failure), new Metadata());
+        return new ServerCall.Listener<>() {
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.bank.capp.grpc;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Makes the caller's address available to gRPC handlers, as the servlet request does
+ * for the REST controllers, so service logins are throttled per client address.
+ */
+@GrpcGlobalServerInterceptor
+public class ClientAddressInterceptor implements ServerInterceptor {
+
+    static final Context.Key<String> CLIENT_ADDRESS = Context.key("clientAddress");
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call,
+            Metadata headers,
+            ServerCallHandler<ReqT, RespT> next
+    ) {
+        SocketAddress remote = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        String address = remote instanceof InetSocketAddress inet
+                ? inet.getAddress().getHostAddress()
+                : String.valueOf(remote);
+        return Contexts.interceptCall(Context.current().withValue(CLIENT_ADDRESS, address), call, headers, next);
+    }
+}
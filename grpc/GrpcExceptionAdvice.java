@@ -0,0 +1,58 @@
+package com.bank.capp.grpc;
+
+import com.bank.capp.exceptions.AuthFailure;
+import com.bank.capp.exceptions.AuthenticationFailureException;
+import com.bank.capp.exceptions.TooManyAttemptsException;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusException;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.advice.GrpcAdvice;
+import net.devh.boot.grpc.server.advice.GrpcExceptionHandler;
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Maps service exceptions to gRPC statuses, as {@code GlobalExceptionHandler} does for REST.
+ * Descriptions carry the same fixed messages as the REST error bodies.
+ */
+@Slf4j
+@GrpcAdvice
+public class GrpcExceptionAdvice {
+
+    private static final Metadata.Key<String> RETRY_AFTER =
+            Metadata.Key.of("retry-after", Metadata.ASCII_STRING_MARSHALLER);
+
+    @GrpcExceptionHandler(AuthenticationFailureException.class)
+    public Status handleAuthenticationFailure(AuthenticationFailureException ex) {
+        return statusOf(ex.getFailure());
+    }
+
+    @GrpcExceptionHandler(TooManyAttemptsException.class)
+    public StatusException handleTooManyAttempts(TooManyAttemptsException ex) {
+        Metadata trailers = new Metadata();
+        trailers.put(RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        return statusOf(ex.getFailure()).asException(trailers);
+    }
+
+    @GrpcExceptionHandler(IllegalArgumentException.class)
+    public Status handleIllegalArgument(IllegalArgumentException ex) {
+        return Status.INVALID_ARGUMENT.withDescription(ex.getMessage());
+    }
+
+    @GrpcExceptionHandler(DataAccessException.class)
+    public Status handleDataAccess(DataAccessException ex) {
+        log.warn("gRPC authentication unavailable: {}", ex.getMessage());
+        return statusOf(AuthFailure.AUTHENTICATION_UNAVAILABLE);
+    }
+
+    static Status statusOf(AuthFailure failure) {
+        Status status = switch (failure.getStatus()) {
+            case UNAUTHORIZED -> Status.UNAUTHENTICATED;
+            case FORBIDDEN -> Status.PERMISSION_DENIED;
+            case TOO_MANY_REQUESTS -> Status.RESOURCE_EXHAUSTED;
+            case SERVICE_UNAVAILABLE -> Status.UNAVAILABLE;
+            default -> Status.INVALID_ARGUMENT;
+        };
+        return status.withDescription(failure.getMessage());
+    }
+}
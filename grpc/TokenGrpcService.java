@@ -0,0 +1,214 @@
+package com.bank.capp.grpc;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.exceptions.AuthFailure;
+import com.bank.capp.exceptions.AuthenticationFailureException;
+import com.bank.capp.grpc.proto.BatchValidateRequest;
+import com.bank.capp.grpc.proto.BatchValidateResponse;
+import com.bank.capp.grpc.proto.PrincipalType;
+import com.bank.capp.grpc.proto.RefreshRequest;
+import com.bank.capp.grpc.proto.ServiceLoginRequest;
+import com.bank.capp.grpc.proto.TokenResponse;
+import com.bank.capp.grpc.proto.TokenServiceGrpc;
+import com.bank.capp.grpc.proto.ValidateRequest;
+import com.bank.capp.grpc.proto.ValidateResponse;
+import com.bank.capp.grpc.proto.ValidationStatus;
+import com.bank.capp.models.Scope;
+import com.bank.capp.models.ServiceAccount;
+import com.bank.capp.models.ServiceAccountAuthenticationResponse;
+import com.bank.capp.models.ServiceAccountLoginRequest;
+import com.bank.capp.models.ServiceAccountRefreshRequest;
+import com.bank.capp.security.AuthenticatedPrincipal;
+import com.bank.capp.security.ServiceQuota;
+import com.bank.capp.security.ServiceQuotaLimiter;
+import com.bank.capp.security.UserSecuritySnapshot;
+import com.bank.capp.services.ApiKeyService;
+import com.bank.capp.services.JwtService;
+import com.bank.capp.services.LoginThrottle;
+import com.bank.capp.services.ServiceAccountAuthenticationService;
+import io.grpc.stub.StreamObserver;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+
+/**
+ * gRPC front for internal callers that validate credentials or log service accounts in.
+ *
+ * Runs on its own HTTP/2 port, outside the servlet filter chain, and reuses the services
+ * behind the REST endpoints. Validation follows the authentication filters: a service
+ * token is valid while its account is active, a user token while it matches its user.
+ * Validation calls are made by authenticated services, see {@link CallerAuthenticationInterceptor};
+ * each validated credential charges the caller's request quota, not the credential owner's.
+ */
+@Slf4j
+@GrpcService
+@RequiredArgsConstructor
+public class TokenGrpcService extends TokenServiceGrpc.TokenServiceImplBase {
+
+    private static final ValidateResponse INVALID = ValidateResponse.newBuilder()
+            .setStatus(ValidationStatus.VALIDATION_STATUS_INVALID)
+            .build();
+    private static final ValidateResponse UNAVAILABLE = ValidateResponse.newBuilder()
+            .setStatus(ValidationStatus.VALIDATION_STATUS_UNAVAILABLE)
+            .build();
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final ApiKeyService apiKeyService;
+    private final ServiceQuotaLimiter serviceQuotaLimiter;
+    private final ServiceAccountAuthenticationService serviceAuthService;
+    private final LoginThrottle loginThrottle;
+
+    @Override
+    public void validate(ValidateRequest request, StreamObserver<ValidateResponse> responseObserver) {
+        responseObserver.onNext(validateCredential(request, callerQuota()));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void batchValidate(BatchValidateRequest request, StreamObserver<BatchValidateResponse> responseObserver) {
+        if (request.getCredentialsCount() > ApiConstants.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(ApiConstants.CREDENTIAL_BATCH_TOO_LARGE);
+        }
+
+        // A throttled batch fails as a whole; credentials already charged stay charged
+        ServiceQuota callerQuota = callerQuota();
+        BatchValidateResponse.Builder response = BatchValidateResponse.newBuilder();
+        for (ValidateRequest credential : request.getCredentialsList()) {
+            response.addResults(validateCredential(credential, callerQuota));
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void serviceLogin(ServiceLoginRequest request, StreamObserver<TokenResponse> responseObserver) {
+        loginThrottle.checkServiceLogin(request.getServiceName(), ClientAddressInterceptor.CLIENT_ADDRESS.get());
+
+        ServiceAccountLoginRequest login = ServiceAccountLoginRequest.builder()
+                .serviceName(request.getServiceName())
+                .apiKey(request.getApiKey())
+                .build();
+
+        responseObserver.onNext(toTokenResponse(serviceAuthService.authenticate(login)));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void refresh(RefreshRequest request, StreamObserver<TokenResponse> responseObserver) {
+        ServiceAccountRefreshRequest refresh = ServiceAccountRefreshRequest.builder()
+                .refreshToken(request.getRefreshToken())
+                .build();
+
+        responseObserver.onNext(toTokenResponse(serviceAuthService.refreshToken(refresh)));
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Request quota of the authenticated caller
+     */
+    private ServiceQuota callerQuota() {
+        ServiceQuota quota = serviceQuotaLimiter.quotaFor(CallerAuthenticationInterceptor.CALLER.get().getId());
+        if (quota == null) {
+            throw new AuthenticationFailureException(AuthFailure.SERVICE_ACCOUNT_INACTIVE);
+        }
+        return quota;
+    }
+
+    /**
+     * Charge the caller and validate one credential; a database failure without a snapshot
+     * is reported per credential
+     */
+    private ValidateResponse validateCredential(ValidateRequest request, ServiceQuota callerQuota) {
+        serviceQuotaLimiter.acquire(callerQuota);
+
+        try {
+            return switch (request.getCredentialCase()) {
+                case ACCESS_TOKEN -> validateAccessToken(request.getAccessToken());
+                case API_KEY -> validateApiKey(request.getApiKey());
+                case CREDENTIAL_NOT_SET -> INVALID;
+            };
+        } catch (JwtException | UsernameNotFoundException e) {
+            log.debug("gRPC validation rejected token: {}", e.getMessage());
+            return INVALID;
+        } catch (DataAccessException e) {
+            log.debug("gRPC validation unavailable: {}", e.getMessage());
+            return UNAVAILABLE;
+        }
+    }
+
+    private ValidateResponse validateAccessToken(String token) {
+        Claims claims = jwtService.parseClaims(token);
+        String subject = claims.getSubject();
+        if (subject == null) {
+            return INVALID;
+        }
+
+        // Service tokens never resolve to a user, even if a user shares the service name
+        if (jwtService.isServiceToken(claims)) {
+            Long serviceAccountId = jwtService.extractServiceAccountId(claims);
+            if (serviceAccountId == null || serviceQuotaLimiter.quotaFor(serviceAccountId) == null) {
+                return INVALID;
+            }
+            return valid(AuthenticatedPrincipal.serviceAccount(
+                    serviceAccountId, subject, jwtService.extractScopes(claims)));
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
+        if (!jwtService.isTokenValid(claims, userDetails)) {
+            return INVALID;
+        }
+        return valid(userDetails instanceof UserSecuritySnapshot snapshot
+                ? snapshot.getPrincipal()
+                : AuthenticatedPrincipal.user(null, userDetails.getUsername(),
+                        List.copyOf(userDetails.getAuthorities())));
+    }
+
+    private ValidateResponse validateApiKey(String apiKey) {
+        ServiceAccount serviceAccount = apiKeyService.validateApiKey(apiKey);
+        if (serviceAccount == null || !serviceAccount.isActive()) {
+            return INVALID;
+        }
+        return valid(AuthenticatedPrincipal.serviceAccount(serviceAccount));
+    }
+
+    private static ValidateResponse valid(AuthenticatedPrincipal principal) {
+        ValidateResponse.Builder response = ValidateResponse.newBuilder()
+                .setStatus(ValidationStatus.VALIDATION_STATUS_VALID)
+                .setName(principal.getName());
+        if (principal.getId() != null) {
+            response.setPrincipalId(principal.getId());
+        }
+        for (GrantedAuthority authority : principal.getAuthorities()) {
+            response.addAuthorities(authority.getAuthority());
+        }
+        if (principal.isServiceAccount()) {
+            response.setPrincipalType(PrincipalType.PRINCIPAL_TYPE_SERVICE_ACCOUNT);
+            for (Scope scope : Scope.fromMask(principal.getGrants())) {
+                response.addScopes(scope.getValue());
+            }
+        } else {
+            response.setPrincipalType(PrincipalType.PRINCIPAL_TYPE_USER);
+        }
+        return response.build();
+    }
+
+    private static TokenResponse toTokenResponse(ServiceAccountAuthenticationResponse response) {
+        return TokenResponse.newBuilder()
+                .setAccessToken(response.getAccessToken())
+                .setRefreshToken(response.getRefreshToken())
+                .setTokenType(response.getTokenType())
+                .setExpiresIn(response.getExpiresIn())
+                .setServiceName(response.getServiceName())
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.bank.capp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.bank.capp.ApiKeyValidation")
+@Label("API Key Validation")
+@Category({"CApp", "Authentication"})
+@Description("API key lookup through the apiKeys cache and, on a miss, the database")
+public class ApiKeyValidationEvent extends Event {
+
+    @Label("Cache Hit")
+    private boolean cacheHit;
+
+    @Label("Found")
+    private boolean found;
+
+    @Label("Database Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long databaseTime;
+
+    public void complete(boolean cacheHit, boolean found, long databaseTime) {
+        end();
+        if (shouldCommit()) {
+            this.cacheHit = cacheHit;
+            this.found = found;
+            this.databaseTime = databaseTime;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.bank.capp.jfr;
+
+import jdk.jfr.ValueDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarizes the authentication events of a flight recording into a per-stage latency breakdown.
+ *
+ * A stage is an event type together with the values of its string and boolean fields,
+ * e.g. {@code Jwt[operation=verify, tokenType=access, outcome=success]}.
+ *
+ * Usage: {@code AuthRecordingAnalyzer <recording.jfr>}
+ */
+public final class AuthRecordingAnalyzer {
+
+    private static final String EVENT_PREFIX = "com.bank.capp.";
+    private static final String ROW_FORMAT = "%-72s %9s %10s %10s %10s %10s %10s%n";
+
+    private AuthRecordingAnalyzer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: AuthRecordingAnalyzer <recording.jfr>");
+            System.exit(2);
+        }
+        print(analyze(Path.of(args[0])), System.out);
+    }
+
+    public static Map<String, Stage> analyze(Path recording) throws IOException {
+        Map<String, Stage> stages = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                if (!type.startsWith(EVENT_PREFIX)) {
+                    continue;
+                }
+                Stage stage = stages.computeIfAbsent(stageKey(type, event), key -> new Stage());
+                stage.durations.add(event.getDuration().toNanos());
+                if (event.hasField("databaseTime")) {
+                    stage.databaseNanos += event.getDuration("databaseTime").toNanos();
+                }
+            }
+        }
+        return stages;
+    }
+
+    public static void print(Map<String, Stage> stages, PrintStream out) {
+        out.printf(Locale.ROOT, ROW_FORMAT, "stage", "count", "total ms", "mean us", "p50 us", "p99 us", "max us");
+        stages.forEach((key, stage) -> {
+            long[] sorted = stage.sorted();
+            out.printf(Locale.ROOT, ROW_FORMAT,
+                    key,
+                    sorted.length,
+                    format(stage.total() / 1_000_000.0),
+                    format(stage.total() / 1_000.0 / sorted.length),
+                    format(percentile(sorted, 50) / 1_000.0),
+                    format(percentile(sorted, 99) / 1_000.0),
+                    format(sorted[sorted.length - 1] / 1_000.0));
+            if (stage.databaseNanos > 0) {
+                out.printf(Locale.ROOT, "  of which database: %s ms%n", format(stage.databaseNanos / 1_000_000.0));
+            }
+        });
+    }
+
+    private static String stageKey(String type, RecordedEvent event) {
+        List<String> values = new ArrayList<>();
+        for (ValueDescriptor field : event.getFields()) {
+            String fieldType = field.getTypeName();
+            if ("java.lang.String".equals(fieldType) || "boolean".equals(fieldType)) {
+                values.add(field.getName() + "=" + event.getValue(field.getName()));
+            }
+        }
+        return type.substring(EVENT_PREFIX.length()) + values;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    public static final class Stage {
+
+        private final List<Long> durations = new ArrayList<>();
+        private long databaseNanos;
+
+        long total() {
+            long total = 0;
+            for (long duration : durations) {
+                total += duration;
+            }
+            return total;
+        }
+
+        long[] sorted() {
+            long[] sorted = durations.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.bank.capp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.bank.capp.AuthenticationFilter")
+@Label("Authentication Filter")
+@Category({"CApp", "Authentication"})
+@Description("Request authentication in the JWT or API key filter")
+public class AuthenticationFilterEvent extends Event {
+
+    @Label("Filter")
+    private String filter;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public void complete(String filter, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.filter = filter;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.bank.capp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.bank.capp.Jwt")
+@Label("JWT")
+@Category({"CApp", "Authentication"})
+@Description("Signing or verification of a JWT")
+public class JwtEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Token Type")
+    @Description("access, refresh, service or unknown when verification failed")
+    private String tokenType;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public void complete(String operation, String tokenType, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.tokenType = tokenType;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.bank.capp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.bank.capp.PasswordEncoder")
+@Label("Password Encoder")
+@Category({"CApp", "Authentication"})
+@Description("Password hashing or verification")
+public class PasswordEncoderEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Matched")
+    private boolean matched;
+
+    public void complete(String operation, boolean matched) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.matched = matched;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bank.capp.jfr;
+
+import com.bank.capp.models.PrincipalType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.bank.capp.RefreshTokenLookup")
+@Label("Refresh Token Lookup")
+@Category({"CApp", "Authentication"})
+@Description("Lookup of a refresh token in the token store")
+public class RefreshTokenLookupEvent extends Event {
+
+    @Label("Principal Type")
+    private String principalType;
+
+    @Label("Found")
+    private boolean found;
+
+    public void complete(PrincipalType principalType, boolean found) {
+        end();
+        if (shouldCommit()) {
+            this.principalType = principalType.name();
+            this.found = found;
+            commit();
+        }
+    }
+}
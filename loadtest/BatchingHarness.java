@@ -0,0 +1,142 @@
+package com.bank.capp.loadtest;
+
+import com.bank.capp.loadtest.StatementRecorder.Execution;
+import com.bank.capp.models.ApiKeyGenerationRequest;
+import com.bank.capp.models.PrincipalType;
+import com.bank.capp.models.Role;
+import com.bank.capp.models.ServiceAccount;
+import com.bank.capp.models.User;
+import com.bank.capp.repository.ServiceAccountRepository;
+import com.bank.capp.repository.TokenStore;
+import com.bank.capp.repository.UserRepository;
+import com.bank.capp.security.AuthenticatedPrincipal;
+import com.bank.capp.services.ApiKeyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Checks that multi-row writes on the auth tables reach the database as JDBC batches with ids
+ * drawn from the pooled sequences: provisioning service accounts, saving users and issuing
+ * refresh tokens in one transaction each, and rotating the provisioned keys.
+ *
+ * A write of {@code ROWS} rows must send no single-row statement, one batch per
+ * {@code batchSize} rows, and at most one sequence call per block of {@code ALLOCATION_SIZE}
+ * ids plus one for the pooled optimizer's first call.
+ */
+@Slf4j
+public class BatchingHarness {
+
+    private static final int ROWS = 50;
+    // Must match allocationSize of the entity @SequenceGenerator mappings
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final ApiKeyService apiKeyService;
+    private final ServiceAccountRepository serviceAccountRepository;
+    private final UserRepository userRepository;
+    private final TokenStore tokenStore;
+    private final TransactionTemplate transactionTemplate;
+    private final StatementRecorder statementRecorder;
+    private final int batchSize;
+    private final List<String> failures = new ArrayList<>();
+
+    public BatchingHarness(ApiKeyService apiKeyService, ServiceAccountRepository serviceAccountRepository,
+                           UserRepository userRepository, TokenStore tokenStore,
+                           TransactionTemplate transactionTemplate, StatementRecorder statementRecorder,
+                           int batchSize) {
+        this.apiKeyService = apiKeyService;
+        this.serviceAccountRepository = serviceAccountRepository;
+        this.userRepository = userRepository;
+        this.tokenStore = tokenStore;
+        this.transactionTemplate = transactionTemplate;
+        this.statementRecorder = statementRecorder;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Run every write and return the failures, empty when all of them were batched
+     */
+    public List<String> run() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        // A user caller; the scope subset check only applies to service callers
+        AuthenticatedPrincipal caller = AuthenticatedPrincipal.user(0L, "batching-check", List.of());
+
+        List<ApiKeyGenerationRequest> requests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            requests.add(new ApiKeyGenerationRequest("batching-" + run + "-" + i, "Batching check"));
+        }
+        checkInserts("provisioning service accounts", "service_accounts", "service_accounts_id_seq",
+                statementRecorder.record(() -> apiKeyService.generateApiKeys(requests, caller)));
+
+        List<Long> accountIds = requests.stream()
+                .map(request -> serviceAccountRepository.findByServiceName(request.getServiceName())
+                        .map(ServiceAccount::getId)
+                        .orElseThrow())
+                .toList();
+        List<Execution> rotation = statementRecorder.record(() -> apiKeyService.rotateApiKeys(accountIds, false, caller));
+        checkBatched("rotating keys", "update", "service_accounts", rotation);
+
+        List<User> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            String username = "batching-" + run + "-" + i;
+            users.add(User.builder()
+                    .username(username)
+                    .email(username + "@loadtest.local")
+                    .password("{noop}unused")
+                    .role(Role.USER)
+                    .enabled(true)
+                    .accountNonExpired(true)
+                    .accountNonLocked(true)
+                    .credentialsNonExpired(true)
+                    .build());
+        }
+        checkInserts("saving users", "users", "users_id_seq",
+                statementRecorder.record(() -> transactionTemplate.executeWithoutResult(
+                        status -> userRepository.saveAll(users))));
+
+        Long userId = users.get(0).getId();
+        LocalDateTime expiry = LocalDateTime.now().plusDays(1);
+        checkInserts("issuing refresh tokens", "refresh_tokens", "refresh_tokens_id_seq",
+                statementRecorder.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                    for (int i = 0; i < ROWS; i++) {
+                        tokenStore.save(PrincipalType.USER, userId, "batching-" + run + "-" + i, expiry);
+                    }
+                })));
+        return failures;
+    }
+
+    private void checkInserts(String write, String table, String sequence, List<Execution> executions) {
+        checkBatched(write, "insert", table, executions);
+        long sequenceCalls = count(executions, execution -> execution.isSequenceCall() && execution.touches(sequence));
+        long budget = (ROWS + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE + 1;
+        if (sequenceCalls > budget) {
+            failures.add(write + ": " + sequenceCalls + " calls to " + sequence + ", budget is " + budget);
+        }
+    }
+
+    private void checkBatched(String write, String verb, String table, List<Execution> executions) {
+        List<Execution> writes = executions.stream().filter(execution -> execution.is(verb, table)).toList();
+        log.info("{}: {} {} round trips for {} rows", write, writes.size(), verb, ROWS);
+
+        long single = count(writes, execution -> !execution.isBatch());
+        long batches = count(writes, Execution::isBatch);
+        int rows = writes.stream().mapToInt(Execution::rows).sum();
+        long expectedBatches = (ROWS + batchSize - 1) / batchSize;
+        if (single > 0) {
+            failures.add(write + ": " + single + " " + verb + " statements sent on their own");
+        }
+        if (batches != expectedBatches || rows != ROWS) {
+            failures.add(write + ": expected " + expectedBatches + " batches of " + ROWS + " rows but saw "
+                    + batches + " batches of " + rows);
+        }
+    }
+
+    private static long count(List<Execution> executions, Predicate<Execution> filter) {
+        return executions.stream().filter(filter).count();
+    }
+}
@@ -0,0 +1,115 @@
+package com.bank.capp.loadtest;
+
+import com.bank.capp.datasource.ReplicaLagGuard;
+import com.bank.capp.services.JdbcCacheInvalidationBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs two nodes of the JDBC cache invalidation bus against one database and checks that
+ * evictions published on one reach the other exactly once, including an eviction whose
+ * transaction took its id first but committed last.
+ */
+@Slf4j
+public class CacheInvalidationHarness {
+
+    private static final String CACHE = "invalidation-harness";
+    private static final Duration LOOKBACK = Duration.ofMinutes(1);
+    private static final Duration RETENTION = Duration.ofMinutes(10);
+    // The load test schema comes from the entities, which do not include the invalidation log
+    static final String CREATE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS cache_invalidations (
+                id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                cache_name VARCHAR(100) NOT NULL,
+                cache_key VARCHAR(255) NOT NULL,
+                created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )""";
+
+    private final DataSource dataSource;
+    private final List<String> failures = new ArrayList<>();
+
+    public CacheInvalidationHarness(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Run every step and return the failures, empty when the bus behaved
+     */
+    public List<String> run() throws SQLException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+
+        CacheManager publisherCaches = new ConcurrentMapCacheManager(CACHE);
+        CacheManager receiverCaches = new ConcurrentMapCacheManager(CACHE);
+        JdbcCacheInvalidationBus publisher = bus(jdbcTemplate, publisherCaches);
+        JdbcCacheInvalidationBus receiver = bus(jdbcTemplate, receiverCaches);
+        Cache cache = receiverCaches.getCache(CACHE);
+
+        cache.put("committed", "stale");
+        publisher.publish(CACHE, "committed");
+        receiver.poll();
+        expect("a committed eviction reaches the other node", cache, "committed", false);
+
+        cache.put("committed", "fresh");
+        receiver.poll();
+        expect("an eviction is applied once per node", cache, "committed", true);
+
+        cache.put("early", "stale");
+        cache.put("late", "stale");
+        try (Connection early = transaction(); Connection late = transaction()) {
+            bus(early, publisherCaches).publish(CACHE, "early");
+            bus(late, publisherCaches).publish(CACHE, "late");
+
+            late.commit();
+            receiver.poll();
+            expect("a later id is applied once committed", cache, "late", false);
+            expect("an uncommitted eviction is not applied", cache, "early", true);
+
+            early.commit();
+            receiver.poll();
+            expect("an earlier id committing last is still applied", cache, "early", false);
+        }
+        return failures;
+    }
+
+    private void expect(String step, Cache cache, String key, boolean cached) {
+        if ((cache.get(key) != null) != cached) {
+            failures.add(step + ": '" + key + "' was " + (cached ? "evicted" : "still cached"));
+        } else {
+            log.debug("Invalidation step passed: {}", step);
+        }
+    }
+
+    private Connection transaction() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    /**
+     * A publishing node whose writes join the given open transaction
+     */
+    private static JdbcCacheInvalidationBus bus(Connection transaction, CacheManager cacheManager) {
+        return bus(new JdbcTemplate(new SingleConnectionDataSource(transaction, true)), cacheManager);
+    }
+
+    private static JdbcCacheInvalidationBus bus(JdbcTemplate jdbcTemplate, CacheManager cacheManager) {
+        return bus(jdbcTemplate, cacheManager, new ReplicaLagGuard(false, LOOKBACK, 1));
+    }
+
+    static JdbcCacheInvalidationBus bus(JdbcTemplate jdbcTemplate, CacheManager cacheManager,
+                                        ReplicaLagGuard replicaLagGuard) {
+        return new JdbcCacheInvalidationBus(jdbcTemplate, cacheManager, replicaLagGuard, LOOKBACK, RETENTION);
+    }
+}
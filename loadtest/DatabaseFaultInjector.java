@@ -0,0 +1,112 @@
+package com.bank.capp.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Makes the embedded database slow or unreliable to exercise degraded-mode authentication.
+ *
+ * Wraps the application data source so that, once active, every connection checkout waits
+ * {@code loadtest.faults.latency} and fails with probability {@code loadtest.faults.failure-rate}.
+ * Faults start {@code loadtest.faults.start} after seeding, so the warm-up can fill the snapshots
+ * first. Does nothing unless a latency or failure rate is configured. Only part of the load test application.
+ */
+@Slf4j
+@Component
+public class DatabaseFaultInjector implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final long latencyMillis;
+    private final double failureRate;
+    private final Duration start;
+    private volatile boolean active;
+
+    public DatabaseFaultInjector(
+            @Value("${loadtest.faults.latency:0ms}") Duration latency,
+            @Value("${loadtest.faults.failure-rate:0}") double failureRate,
+            @Value("${loadtest.faults.start:0s}") Duration start
+    ) {
+        this.latencyMillis = latency.toMillis();
+        this.failureRate = failureRate;
+        this.start = start;
+    }
+
+    public boolean isConfigured() {
+        return latencyMillis > 0 || failureRate > 0;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (isConfigured() && DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource) {
+            return new FaultyDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    /**
+     * Start injecting faults after the configured delay
+     */
+    public void schedule() {
+        if (!isConfigured()) {
+            return;
+        }
+        Thread starter = new Thread(() -> {
+            try {
+                Thread.sleep(start.toMillis());
+                active = true;
+                log.info("Injecting database faults: {}ms latency, {} failure rate", latencyMillis, failureRate);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "loadtest-faults");
+        starter.setDaemon(true);
+        starter.start();
+    }
+
+    private void inject() throws SQLException {
+        if (!active) {
+            return;
+        }
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted during injected latency", e);
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new SQLTransientConnectionException("Injected database failure");
+        }
+    }
+
+    private class FaultyDataSource extends DelegatingDataSource {
+
+        FaultyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            inject();
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            inject();
+            return super.getConnection(username, password);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.bank.capp.loadtest;
+
+import com.bank.capp.resilience.AuthLookupGuard;
+import com.bank.capp.resilience.AuthLookupHealthIndicator;
+import com.bank.capp.resilience.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives the authentication lookup guard against an embedded database that can be made slow
+ * or failing, and checks the degraded-mode behavior: snapshot fallback on failures and
+ * timeouts, the breaker opening and closing again, and a full lookup pool neither opening
+ * the breaker nor holding up best-effort writes.
+ */
+@Slf4j
+public class DegradedModeHarness {
+
+    private static final String SNAPSHOTS = "degraded-mode-snapshots";
+    private static final String KNOWN = "known-user";
+    private static final String UNSEEN = "unseen-user";
+    private static final Duration TIMEOUT = Duration.ofMillis(200);
+    private static final Duration OPEN_DURATION = Duration.ofMillis(500);
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final String CREATE_SQL =
+            "CREATE TABLE degraded_probe (username VARCHAR(100) PRIMARY KEY, email VARCHAR(255) NOT NULL)";
+    private static final String INSERT_SQL = "INSERT INTO degraded_probe (username, email) VALUES (?, ?)";
+    private static final String SELECT_SQL = "SELECT email FROM degraded_probe WHERE username = ?";
+
+    private final List<String> failures = new ArrayList<>();
+
+    /**
+     * Run every step and return the failures, empty when the guard behaved
+     */
+    public List<String> run() throws Exception {
+        DriverManagerDataSource database = new DriverManagerDataSource(
+                "jdbc:h2:mem:degraded-mode;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        FaultyDataSource faulty = new FaultyDataSource(database);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(faulty);
+        jdbcTemplate.execute(CREATE_SQL);
+        jdbcTemplate.update(INSERT_SQL, KNOWN, "known@example.com");
+        jdbcTemplate.update(INSERT_SQL, UNSEEN, "unseen@example.com");
+
+        AuthLookupGuard guard = guard(TIMEOUT, 4, 16);
+        try {
+            checkFallback(guard, faulty, jdbcTemplate);
+        } finally {
+            guard.shutdown();
+            new JdbcTemplate(database).execute("SHUTDOWN");
+        }
+
+        // Lookups that wait on a latch rather than the database, so only the pool limits them
+        AuthLookupGuard saturated = guard(Duration.ofSeconds(5), 2, 2);
+        try {
+            checkSaturation(saturated);
+        } finally {
+            saturated.shutdown();
+        }
+        return failures;
+    }
+
+    private void checkFallback(AuthLookupGuard guard, FaultyDataSource faulty, JdbcTemplate jdbcTemplate)
+            throws InterruptedException {
+        expect("a healthy lookup reads the database", "known@example.com", lookup(guard, jdbcTemplate, KNOWN));
+
+        faulty.failing = true;
+        expect("a failed lookup serves the snapshot", "known@example.com", lookup(guard, jdbcTemplate, KNOWN));
+        expectFailure("a failed lookup without a snapshot fails", guard, jdbcTemplate, UNSEEN);
+        for (int i = 2; i < FAILURE_THRESHOLD; i++) {
+            lookup(guard, jdbcTemplate, KNOWN);
+        }
+        expect("the breaker opens after consecutive failures", CircuitBreaker.State.OPEN, guard.getState());
+        expect("health reports degraded", AuthLookupHealthIndicator.DEGRADED,
+                new AuthLookupHealthIndicator(guard).health().getStatus());
+
+        int checkouts = faulty.checkouts.get();
+        expect("an open breaker serves the snapshot", "known@example.com", lookup(guard, jdbcTemplate, KNOWN));
+        expectFailure("an open breaker fails principals without a snapshot", guard, jdbcTemplate, UNSEEN);
+        expect("an open breaker does not touch the database", checkouts, faulty.checkouts.get());
+
+        faulty.failing = false;
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        expect("the trial call after the open window reads the database", "unseen@example.com",
+                lookup(guard, jdbcTemplate, UNSEEN));
+        expect("a successful trial call closes the breaker", CircuitBreaker.State.CLOSED, guard.getState());
+
+        faulty.latencyMillis = TIMEOUT.toMillis() * 3;
+        long staleReads = guard.getStaleReads();
+        expect("a timed out lookup serves the snapshot", "known@example.com", lookup(guard, jdbcTemplate, KNOWN));
+        expect("a timed out lookup is a stale read", staleReads + 1, guard.getStaleReads());
+        expect("a timed out lookup counts towards the breaker", 1, guard.getConsecutiveFailures());
+        faulty.latencyMillis = 0;
+    }
+
+    private void checkSaturation(AuthLookupGuard guard) throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String key = "busy-" + i;
+            Thread caller = new Thread(() -> guard.lookup(SNAPSHOTS, key, () -> {
+                await(release);
+                return Optional.of(key);
+            }), "degraded-mode-caller-" + i);
+            caller.start();
+            callers.add(caller);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((guard.getActiveLookups() < 2 || guard.getQueuedLookups() < 2) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        try {
+            guard.lookup(SNAPSHOTS, UNSEEN, () -> Optional.of(UNSEEN));
+            failures.add("a lookup turned away by a full pool: expected a failure but it succeeded");
+        } catch (DataAccessException e) {
+            log.debug("Degraded mode step passed: a lookup turned away by a full pool fails");
+        }
+        expect("a full pool does not count towards the breaker", 0, guard.getConsecutiveFailures());
+        expect("a full pool leaves the breaker closed", CircuitBreaker.State.CLOSED, guard.getState());
+
+        CountDownLatch written = new CountDownLatch(1);
+        guard.bestEffort(written::countDown);
+        expect("a best-effort write runs while lookups are saturated", true, written.await(1, TimeUnit.SECONDS));
+
+        release.countDown();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+    }
+
+    private static String lookup(AuthLookupGuard guard, JdbcTemplate jdbcTemplate, String username) {
+        return guard.lookup(SNAPSHOTS, username,
+                () -> Optional.ofNullable(jdbcTemplate.queryForObject(SELECT_SQL, String.class, username)))
+                .orElse(null);
+    }
+
+    private void expectFailure(String step, AuthLookupGuard guard, JdbcTemplate jdbcTemplate, String username) {
+        try {
+            failures.add(step + ": expected a failure but read " + lookup(guard, jdbcTemplate, username));
+        } catch (DataAccessException e) {
+            log.debug("Degraded mode step passed: {}", step);
+        }
+    }
+
+    private void expect(String step, Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            failures.add(step + ": expected " + expected + " but was " + actual);
+        } else {
+            log.debug("Degraded mode step passed: {}", step);
+        }
+    }
+
+    private static AuthLookupGuard guard(Duration timeout, int threads, int queueSize) {
+        return new AuthLookupGuard(new ConcurrentMapCacheManager(SNAPSHOTS),
+                timeout, FAILURE_THRESHOLD, OPEN_DURATION, threads, queueSize, 1, 16);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Embedded database whose connection checkouts can be slowed down or made to fail
+     */
+    private static class FaultyDataSource extends DelegatingDataSource {
+
+        private final AtomicInteger checkouts = new AtomicInteger();
+        private volatile boolean failing;
+        private volatile long latencyMillis;
+
+        FaultyDataSource(DriverManagerDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            checkouts.incrementAndGet();
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLTransientConnectionException("Interrupted during injected latency", e);
+                }
+            }
+            if (failing) {
+                throw new SQLTransientConnectionException("Injected database failure");
+            }
+            return super.getConnection();
+        }
+    }
+}
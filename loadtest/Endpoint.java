@@ -0,0 +1,16 @@
+package com.bank.capp.loadtest;
+
+/**
+ * Request types of the load test workload mix
+ */
+public enum Endpoint {
+    LOGIN,
+    REFRESH,
+    JWT_CALL,
+    API_KEY_CALL,
+    LOGOUT,
+    SERVICE_LOGIN,
+    GRPC_JWT_CALL,
+    GRPC_API_KEY_CALL,
+    GRPC_SERVICE_LOGIN
+}
@@ -0,0 +1,393 @@
+package com.bank.capp.loadtest;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.constants.SecurityConstants;
+import com.bank.capp.grpc.proto.ServiceLoginRequest;
+import com.bank.capp.grpc.proto.TokenServiceGrpc;
+import com.bank.capp.grpc.proto.ValidateRequest;
+import com.bank.capp.grpc.proto.ValidateResponse;
+import com.bank.capp.grpc.proto.ValidationStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Open-model load generator: requests are issued on a fixed schedule regardless of how
+ * fast earlier ones complete, and each latency is measured from the request's intended
+ * start time rather than the moment it was actually sent. A stalled server therefore
+ * shows up as queueing delay in the percentiles instead of silently lowering the
+ * offered load (coordinated omission).
+ */
+@Slf4j
+public class LoadGenerator {
+
+    private static final String AUTH_PATH = SecurityConstants.AUTH_BASE_PATH;
+    private static final String SERVICE_AUTH_PATH = ApiConstants.API_BASE_PATH + "/service-auth";
+    private static final String PROBE_PATH = ApiConstants.API_BASE_PATH + "/loadtest/whoami";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int SESSION_LOOKUP_ATTEMPTS = 8;
+
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final LoadTestSeeder.SeedData seedData;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final ManagedChannel grpcChannel;
+    private final TokenServiceGrpc.TokenServiceStub grpcStub;
+    private final Endpoint[] wheel;
+    private final AtomicReferenceArray<Session> sessions;
+    private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    private final AtomicLong inFlight = new AtomicLong();
+    private volatile long measureFrom = Long.MAX_VALUE;
+
+    public LoadGenerator(
+            URI baseUri,
+            int grpcPort,
+            LoadTestSettings settings,
+            LoadTestSeeder.SeedData seedData,
+            ObjectMapper objectMapper
+    ) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.seedData = seedData;
+        this.objectMapper = objectMapper;
+        this.executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        // One persistent HTTP/2 connection, as internal callers would hold
+        this.grpcChannel = ManagedChannelBuilder.forAddress(baseUri.getHost(), grpcPort)
+                .usePlaintext()
+                .executor(executor)
+                .build();
+        // Validation calls must come from a service; the first seeded account plays the caller
+        Metadata callerCredentials = new Metadata();
+        if (seedData.apiKeys().length > 0) {
+            callerCredentials.put(Metadata.Key.of(SecurityConstants.API_KEY_HEADER, Metadata.ASCII_STRING_MARSHALLER),
+                    seedData.apiKeys()[0]);
+        }
+        this.grpcStub = TokenServiceGrpc.newStub(grpcChannel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(callerCredentials));
+        this.wheel = buildWheel(settings.getMix());
+        this.sessions = new AtomicReferenceArray<>(Math.max(1, settings.getPrimedSessions()));
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new Recorder(3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    /**
+     * Prime sessions, warm up, then measure for the configured duration
+     */
+    public LoadReport run() throws InterruptedException {
+        try {
+            primeSessions();
+
+            log.info("Warming up for {} at {} req/s", settings.getWarmup(), settings.getRequestsPerSecond());
+            runPhase(settings.getWarmup());
+
+            log.info("Measuring for {} at {} req/s", settings.getDuration(), settings.getRequestsPerSecond());
+            long start = System.nanoTime();
+            measureFrom = start;
+            long scheduled = runPhase(settings.getDuration());
+            awaitInFlight();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+            Map<Endpoint, Long> errorCounts = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : Endpoint.values()) {
+                histograms.put(endpoint, recorders.get(endpoint).getIntervalHistogram());
+                errorCounts.put(endpoint, errors.get(endpoint).sum());
+            }
+            return new LoadReport(settings.getRequestsPerSecond(), scheduled, elapsed, histograms, errorCounts);
+        } finally {
+            grpcChannel.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Log in enough users up front that refresh, logout and JWT calls find sessions immediately
+     */
+    private void primeSessions() throws InterruptedException {
+        for (int slot = 0; slot < sessions.length(); slot++) {
+            int user = slot;
+            dispatchLogin(user, System.nanoTime());
+        }
+        awaitInFlight();
+        log.info("Primed {} sessions", sessions.length());
+    }
+
+    /**
+     * Issue requests at the fixed rate for the given duration and return how many were scheduled
+     */
+    private long runPhase(Duration duration) {
+        long interval = settings.getIntervalNanos();
+        long count = duration.toNanos() / interval;
+        long phaseStart = System.nanoTime();
+
+        for (long i = 0; i < count; i++) {
+            long intended = phaseStart + i * interval;
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            dispatch(wheel[ThreadLocalRandom.current().nextInt(wheel.length)], intended);
+        }
+        return count;
+    }
+
+    private void dispatch(Endpoint endpoint, long intended) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (endpoint) {
+            case LOGIN -> dispatchLogin(random.nextInt(seedData.users()), intended);
+            case REFRESH -> {
+                int slot = randomSessionSlot();
+                if (slot < 0) {
+                    dispatchLogin(random.nextInt(seedData.users()), intended);
+                    return;
+                }
+                Session session = sessions.get(slot);
+                send(Endpoint.REFRESH,
+                        post(AUTH_PATH + "/refresh", Map.of("refreshToken", session.refreshToken())),
+                        intended,
+                        body -> sessions.compareAndSet(slot, session, session(body)));
+            }
+            case JWT_CALL -> {
+                int slot = randomSessionSlot();
+                if (slot < 0) {
+                    dispatchLogin(random.nextInt(seedData.users()), intended);
+                    return;
+                }
+                send(Endpoint.JWT_CALL,
+                        get(PROBE_PATH)
+                                .header(SecurityConstants.AUTHORIZATION_HEADER,
+                                        SecurityConstants.BEARER_PREFIX + sessions.get(slot).accessToken())
+                                .build(),
+                        intended,
+                        null);
+            }
+            case API_KEY_CALL -> {
+                int account = random.nextInt(seedData.apiKeys().length);
+                send(Endpoint.API_KEY_CALL,
+                        get(PROBE_PATH).header(SecurityConstants.API_KEY_HEADER, seedData.apiKeys()[account]).build(),
+                        intended,
+                        null);
+            }
+            case LOGOUT -> {
+                int slot = randomSessionSlot();
+                Session session = slot < 0 ? null : sessions.getAndSet(slot, null);
+                if (session == null) {
+                    dispatchLogin(random.nextInt(seedData.users()), intended);
+                    return;
+                }
+                send(Endpoint.LOGOUT,
+                        post(AUTH_PATH + "/logout", Map.of("refreshToken", session.refreshToken())),
+                        intended,
+                        null);
+            }
+            case SERVICE_LOGIN -> {
+                int account = random.nextInt(seedData.apiKeys().length);
+                send(Endpoint.SERVICE_LOGIN,
+                        post(SERVICE_AUTH_PATH + "/login", Map.of(
+                                "serviceName", seedData.serviceNames()[account],
+                                "apiKey", seedData.apiKeys()[account])),
+                        intended,
+                        null);
+            }
+            case GRPC_JWT_CALL -> {
+                int slot = randomSessionSlot();
+                if (slot < 0) {
+                    dispatchLogin(random.nextInt(seedData.users()), intended);
+                    return;
+                }
+                ValidateRequest request = ValidateRequest.newBuilder()
+                        .setAccessToken(sessions.get(slot).accessToken())
+                        .build();
+                inFlight.incrementAndGet();
+                grpc().validate(request, observer(Endpoint.GRPC_JWT_CALL, intended, LoadGenerator::isValid));
+            }
+            case GRPC_API_KEY_CALL -> {
+                int account = random.nextInt(seedData.apiKeys().length);
+                ValidateRequest request = ValidateRequest.newBuilder()
+                        .setApiKey(seedData.apiKeys()[account])
+                        .build();
+                inFlight.incrementAndGet();
+                grpc().validate(request, observer(Endpoint.GRPC_API_KEY_CALL, intended, LoadGenerator::isValid));
+            }
+            case GRPC_SERVICE_LOGIN -> {
+                int account = random.nextInt(seedData.apiKeys().length);
+                ServiceLoginRequest request = ServiceLoginRequest.newBuilder()
+                        .setServiceName(seedData.serviceNames()[account])
+                        .setApiKey(seedData.apiKeys()[account])
+                        .build();
+                inFlight.incrementAndGet();
+                grpc().serviceLogin(request, observer(Endpoint.GRPC_SERVICE_LOGIN, intended, response -> true));
+            }
+        }
+    }
+
+    private void dispatchLogin(int user, long intended) {
+        int slot = user % sessions.length();
+        send(Endpoint.LOGIN,
+                post(AUTH_PATH + "/login", Map.of(
+                        "username", LoadTestSeeder.username(user),
+                        "password", seedData.password())),
+                intended,
+                body -> sessions.set(slot, session(body)));
+    }
+
+    private void send(Endpoint endpoint, HttpRequest request, long intended, Consumer<byte[]> onSuccess) {
+        inFlight.incrementAndGet();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    try {
+                        boolean success = error == null && response.statusCode() / 100 == 2;
+                        record(endpoint, intended, success);
+                        if (success && onSuccess != null) {
+                            onSuccess.accept(response.body());
+                        }
+                    } catch (RuntimeException e) {
+                        log.debug("Failed to handle {} response", endpoint, e);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+    }
+
+    /**
+     * Completion handler of a unary gRPC call, judged successful by the given check
+     */
+    private <T> StreamObserver<T> observer(Endpoint endpoint, long intended, Predicate<T> success) {
+        return new StreamObserver<>() {
+            private boolean succeeded;
+
+            @Override
+            public void onNext(T response) {
+                succeeded = success.test(response);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                record(endpoint, intended, false);
+                inFlight.decrementAndGet();
+            }
+
+            @Override
+            public void onCompleted() {
+                record(endpoint, intended, succeeded);
+                inFlight.decrementAndGet();
+            }
+        };
+    }
+
+    private TokenServiceGrpc.TokenServiceStub grpc() {
+        return grpcStub.withDeadlineAfter(REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void record(Endpoint endpoint, long intended, boolean success) {
+        long latency = System.nanoTime() - intended;
+        if (intended >= measureFrom) {
+            recorders.get(endpoint).recordValue(latency);
+            if (!success) {
+                errors.get(endpoint).increment();
+            }
+        }
+    }
+
+    private static boolean isValid(ValidateResponse response) {
+        return response.getStatus() == ValidationStatus.VALIDATION_STATUS_VALID;
+    }
+
+    private int randomSessionSlot() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SESSION_LOOKUP_ATTEMPTS; i++) {
+            int slot = random.nextInt(sessions.length());
+            if (sessions.get(slot) != null) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private HttpRequest post(String path, Map<String, String> body) {
+        try {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET();
+    }
+
+    private Session session(byte[] body) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            return new Session(json.path("accessToken").asText(), json.path("refreshToken").asText());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Endpoint[] buildWheel(Map<Endpoint, Integer> mix) {
+        List<Endpoint> wheel = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(endpoint);
+            }
+        });
+        return wheel.toArray(new Endpoint[0]);
+    }
+
+    private record Session(String accessToken, String refreshToken) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.bank.capp.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-endpoint latency percentiles of a load test run.
+ * Histograms hold nanoseconds and are reported in milliseconds.
+ */
+public class LoadReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final String ROW_FORMAT = "%-14s %9s %7s %9s %9s %9s %9s %9s%n";
+    private static final String COMPARISON_FORMAT = "%-14s %9s %9s %9s %9s %9s%n";
+    // REST endpoints and the gRPC calls doing the same work
+    private static final Map<Endpoint, Endpoint> GRPC_COUNTERPARTS = new EnumMap<>(Map.of(
+            Endpoint.JWT_CALL, Endpoint.GRPC_JWT_CALL,
+            Endpoint.API_KEY_CALL, Endpoint.GRPC_API_KEY_CALL,
+            Endpoint.SERVICE_LOGIN, Endpoint.GRPC_SERVICE_LOGIN
+    ));
+
+    private final int targetRate;
+    private final long scheduled;
+    private final Duration elapsed;
+    private final Map<Endpoint, Histogram> histograms;
+    private final Map<Endpoint, Long> errors;
+
+    public LoadReport(int targetRate, long scheduled, Duration elapsed,
+                      Map<Endpoint, Histogram> histograms, Map<Endpoint, Long> errors) {
+        this.targetRate = targetRate;
+        this.scheduled = scheduled;
+        this.elapsed = elapsed;
+        this.histograms = histograms;
+        this.errors = errors;
+    }
+
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "Target rate %d req/s, %d requests scheduled, completed in %.1fs%n",
+                targetRate, scheduled, elapsed.toMillis() / 1000.0);
+        out.printf(Locale.ROOT, ROW_FORMAT, "endpoint", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        for (Map.Entry<Endpoint, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long errorCount = errors.getOrDefault(entry.getKey(), 0L);
+            if (histogram.getTotalCount() > 0) {
+                printRow(out, entry.getKey().name().toLowerCase(Locale.ROOT), histogram, errorCount);
+                all.add(histogram);
+                allErrors += errorCount;
+            }
+        }
+        printRow(out, "all", all, allErrors);
+        printComparison(out);
+    }
+
+    /**
+     * Put each REST endpoint next to its gRPC counterpart when both ran
+     */
+    private void printComparison(PrintStream out) {
+        boolean header = false;
+        for (Map.Entry<Endpoint, Endpoint> pair : GRPC_COUNTERPARTS.entrySet()) {
+            Histogram rest = histograms.get(pair.getKey());
+            Histogram grpc = histograms.get(pair.getValue());
+            if (rest == null || grpc == null || rest.getTotalCount() == 0 || grpc.getTotalCount() == 0) {
+                continue;
+            }
+            if (!header) {
+                out.println();
+                out.printf(Locale.ROOT, COMPARISON_FORMAT,
+                        "rest vs grpc", "rest p50", "grpc p50", "rest p99", "grpc p99", "p99 ratio");
+                header = true;
+            }
+            long restP99 = rest.getValueAtPercentile(99);
+            long grpcP99 = grpc.getValueAtPercentile(99);
+            out.printf(Locale.ROOT, COMPARISON_FORMAT,
+                    pair.getKey().name().toLowerCase(Locale.ROOT),
+                    millis(rest.getValueAtPercentile(50)),
+                    millis(grpc.getValueAtPercentile(50)),
+                    millis(restP99),
+                    millis(grpcP99),
+                    restP99 > 0 ? String.format(Locale.ROOT, "%.2f", (double) grpcP99 / restP99) : "-");
+        }
+    }
+
+    /**
+     * Write the full percentile distribution of each endpoint as an .hgrm file
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Endpoint, Histogram> entry : histograms.entrySet()) {
+            if (entry.getValue().getTotalCount() == 0) {
+                continue;
+            }
+            Path file = directory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("summary.txt")))) {
+            print(out);
+        }
+    }
+
+    private void printRow(PrintStream out, String name, Histogram histogram, long errorCount) {
+        out.printf(Locale.ROOT, ROW_FORMAT,
+                name,
+                histogram.getTotalCount(),
+                errorCount,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / NANOS_PER_MILLI);
+    }
+}
@@ -0,0 +1,209 @@
+package com.bank.capp.loadtest;
+
+import com.bank.capp.repository.JpaTokenStore;
+import com.bank.capp.repository.MappedFileTokenStore;
+import com.bank.capp.repository.ServiceAccountRepository;
+import com.bank.capp.repository.TokenStore;
+import com.bank.capp.repository.UserRepository;
+import com.bank.capp.security.ApiKeyHasher;
+import com.bank.capp.services.ApiKeyService;
+import com.bank.capp.services.AuthenticationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.devh.boot.grpc.server.event.GrpcServerStartedEvent;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts the full application on random HTTP and gRPC ports against an in-memory H2 database,
+ * seeds it and drives the configured workload mix at a fixed arrival rate.
+ *
+ * Any {@code loadtest.*} or application property can be overridden on the command line,
+ * e.g. {@code --loadtest.rate=500 --loadtest.duration=2m}.
+ */
+@SpringBootApplication(scanBasePackages = "com.bank.capp")
+@EntityScan("com.bank.capp.models")
+@EnableJpaRepositories("com.bank.capp.repository")
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        SpringApplication application = new SpringApplication(LoadTestApplication.class);
+        application.setDefaultProperties(defaultProperties());
+        AtomicInteger grpcPort = new AtomicInteger();
+        application.addListeners((ApplicationListener<GrpcServerStartedEvent>) event -> grpcPort.set(event.getPort()));
+
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            LoadTestSettings settings = LoadTestSettings.from(context.getEnvironment());
+
+            LoadTestSeeder seeder = new LoadTestSeeder(
+                    context.getBean(JdbcTemplate.class),
+                    context.getBean(PasswordEncoder.class),
+                    context.getBean(ApiKeyHasher.class)
+            );
+            LoadTestSeeder.SeedData seedData = seeder.seed(settings);
+
+            if (context.getEnvironment().getProperty("loadtest.token-store-conformance", Boolean.class, false)) {
+                checkTokenStoreConformance(context);
+                return;
+            }
+            if (context.getEnvironment().getProperty("loadtest.cache-invalidation-check", Boolean.class, false)) {
+                checkCacheInvalidation(context);
+                return;
+            }
+            if (context.getEnvironment().getProperty("loadtest.replica-lag-check", Boolean.class, false)) {
+                report("Changed users were read from the primary on both nodes",
+                        "Replica lag guard routed a read wrongly", new ReplicaLagHarness().run());
+                return;
+            }
+            if (context.getEnvironment().getProperty("loadtest.query-count-check", Boolean.class, false)) {
+                report("Logins stayed within their statement budget", "Login sent more statements than budgeted",
+                        new QueryCountHarness(context.getBean(AuthenticationService.class),
+                                context.getBean(StatementRecorder.class), context.getBean(CacheManager.class))
+                                .run(LoadTestSeeder.username(0), seedData.password()));
+                return;
+            }
+            if (context.getEnvironment().getProperty("loadtest.query-plan-check", Boolean.class, false)) {
+                checkQueryPlans(context);
+                return;
+            }
+            if (context.getEnvironment().getProperty("loadtest.batching-check", Boolean.class, false)) {
+                checkBatching(context);
+                return;
+            }
+            if (context.getEnvironment().getProperty("loadtest.degraded-mode-check", Boolean.class, false)) {
+                report("Authentication lookups degraded and recovered as expected",
+                        "Authentication lookup guard misbehaved", new DegradedModeHarness().run());
+                return;
+            }
+            context.getBean(DatabaseFaultInjector.class).schedule();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadGenerator generator = new LoadGenerator(
+                    URI.create("http://localhost:" + port),
+                    grpcPort.get(),
+                    settings,
+                    seedData,
+                    context.getBean(ObjectMapper.class)
+            );
+
+            LoadReport report = generator.run();
+            report.print(System.out);
+            report.write(settings.getOutputDir());
+        }
+    }
+
+    /**
+     * Compare a fresh mapped token store against the JPA store of the running application.
+     * The mapped table starts with four slots so the run also crosses several rehashes.
+     */
+    private static void checkTokenStoreConformance(ConfigurableApplicationContext context) throws IOException {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        long serviceAccountId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM service_accounts", Long.class);
+
+        Path file = Files.createTempDirectory("token-store-conformance").resolve("refresh-tokens.dat");
+        MappedFileTokenStore mapped = new MappedFileTokenStore(file.toString(), 4, false, "local");
+        try {
+            List<String> mismatches = new TokenStoreConformance(
+                    context.getBean(JpaTokenStore.class), mapped, userId, serviceAccountId).run();
+            report("Mapped token store conforms to the JPA token store",
+                    "Mapped token store differs from the JPA token store", mismatches);
+        } finally {
+            mapped.close();
+        }
+    }
+
+    /**
+     * Run two JDBC invalidation bus nodes against the application's database
+     */
+    private static void checkCacheInvalidation(ConfigurableApplicationContext context) throws SQLException {
+        List<String> failures = new CacheInvalidationHarness(context.getBean(DataSource.class)).run();
+        report("Cache invalidations reached the other node exactly once",
+                "Cache invalidation bus misbehaved", failures);
+    }
+
+    /**
+     * Plan the repository queries on the PostgreSQL server given by {@code loadtest.query-plans.*}
+     */
+    private static void checkQueryPlans(ConfigurableApplicationContext context) throws SQLException {
+        Environment environment = context.getEnvironment();
+        List<String> failures = new QueryPlanHarness(
+                environment.getRequiredProperty("loadtest.query-plans.url"),
+                environment.getProperty("loadtest.query-plans.username"),
+                environment.getProperty("loadtest.query-plans.password")
+        ).run();
+        report("Every repository query uses its index", "Repository queries missed their index", failures);
+    }
+
+    /**
+     * Provision, save and issue rows in bulk through the application's services and repositories
+     */
+    private static void checkBatching(ConfigurableApplicationContext context) {
+        List<String> failures = new BatchingHarness(
+                context.getBean(ApiKeyService.class),
+                context.getBean(ServiceAccountRepository.class),
+                context.getBean(UserRepository.class),
+                context.getBean(TokenStore.class),
+                context.getBean(TransactionTemplate.class),
+                context.getBean(StatementRecorder.class),
+                context.getEnvironment().getProperty("application.jpa.batch-size", Integer.class, 50)
+        ).run();
+        report("Bulk writes were sent as JDBC batches", "Bulk writes were not batched", failures);
+    }
+
+    private static void report(String passed, String failed, List<String> problems) {
+        if (problems.isEmpty()) {
+            System.out.println(passed);
+            return;
+        }
+        System.out.println(failed + ":");
+        problems.forEach(problem -> System.out.println("  " + problem));
+        throw new IllegalStateException(problems.size() + " check failures");
+    }
+
+    private static Map<String, Object> defaultProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("grpc.server.port", 0);
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        // The migrations use PostgreSQL partial indexes, which H2 does not support
+        properties.put("spring.flyway.enabled", false);
+        properties.put("spring.jpa.open-in-view", false);
+        // 256 bit HS256 key, for load testing only
+        properties.put("application.security.jwt.secret-key",
+                "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        properties.put("application.security.jwt.expiration", 900000);
+        properties.put("application.security.jwt.refresh-token.expiration", 604800000);
+        // The generator deliberately repeats logins from one address; measure the service, not the throttle
+        properties.put("application.security.login-throttle.ip.burst", 1_000_000);
+        properties.put("application.security.login-throttle.user.burst", 1_000_000);
+        properties.put("application.security.login-throttle.service.burst", 1_000_000);
+        properties.put("logging.level.com.bank.capp", "WARN");
+        properties.put("logging.level.com.bank.capp.loadtest", "INFO");
+        return properties;
+    }
+}
@@ -0,0 +1,24 @@
+package com.bank.capp.loadtest;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.security.OpenEndpoint;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Minimal protected endpoint so authenticated calls measure the filter chain rather than business logic.
+ * Only part of the load test application.
+ */
+@RestController
+@RequestMapping(ApiConstants.API_BASE_PATH + "/loadtest")
+@OpenEndpoint
+public class LoadTestProbeController {
+
+    @GetMapping("/whoami")
+    public ResponseEntity<String> whoami(Authentication authentication) {
+        return ResponseEntity.ok(authentication.getName());
+    }
+}
@@ -0,0 +1,85 @@
+package com.bank.capp.loadtest;
+
+import com.bank.capp.models.Role;
+import com.bank.capp.security.ApiKeyHasher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Seeds users and service accounts with plain JDBC batches.
+ * All users share one password so it is hashed once instead of once per row.
+ */
+@Slf4j
+public class LoadTestSeeder {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Schema generated by Hibernate has no id column defaults, so ids are drawn from the entity sequences
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (id, username, email, password, first_name, last_name, role, enabled, "
+                    + "account_non_expired, account_non_locked, credentials_non_expired, created_at) "
+                    + "VALUES (nextval('users_id_seq'), ?, ?, ?, 'Load', 'Test', ?, true, true, true, true, CURRENT_TIMESTAMP)";
+
+    private static final String INSERT_SERVICE_ACCOUNT_SQL =
+            "INSERT INTO service_accounts (id, service_name, description, api_key_hash, active, scopes, "
+                    + "created_at, updated_at) "
+                    + "VALUES (nextval('service_accounts_id_seq'), ?, 'Load test service', ?, true, 0, CURRENT_TIMESTAMP, "
+                    + "CURRENT_TIMESTAMP)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ApiKeyHasher apiKeyHasher;
+
+    public LoadTestSeeder(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, ApiKeyHasher apiKeyHasher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.apiKeyHasher = apiKeyHasher;
+    }
+
+    public SeedData seed(LoadTestSettings settings) {
+        String passwordHash = passwordEncoder.encode(settings.getPassword());
+
+        List<Object[]> users = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < settings.getUsers(); i++) {
+            String username = username(i);
+            users.add(new Object[]{username, username + "@loadtest.local", passwordHash, Role.USER.name()});
+            if (users.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_USER_SQL, users);
+                users.clear();
+            }
+        }
+        if (!users.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, users);
+        }
+
+        SecureRandom random = new SecureRandom();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String[] serviceNames = new String[settings.getServiceAccounts()];
+        String[] apiKeys = new String[settings.getServiceAccounts()];
+        List<Object[]> accounts = new ArrayList<>(settings.getServiceAccounts());
+        for (int i = 0; i < serviceNames.length; i++) {
+            byte[] keyBytes = new byte[32];
+            random.nextBytes(keyBytes);
+            serviceNames[i] = "load-service-" + i;
+            apiKeys[i] = encoder.encodeToString(keyBytes);
+            accounts.add(new Object[]{serviceNames[i], apiKeyHasher.hash(apiKeys[i])});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SERVICE_ACCOUNT_SQL, accounts);
+
+        log.info("Seeded {} users and {} service accounts", settings.getUsers(), serviceNames.length);
+        return new SeedData(settings.getUsers(), settings.getPassword(), serviceNames, apiKeys);
+    }
+
+    public static String username(int index) {
+        return "loaduser" + index;
+    }
+
+    public record SeedData(int users, String password, String[] serviceNames, String[] apiKeys) {
+    }
+}
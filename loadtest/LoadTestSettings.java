@@ -0,0 +1,76 @@
+package com.bank.capp.loadtest;
+
+import lombok.Getter;
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load test parameters, read from {@code loadtest.*} properties
+ */
+@Getter
+public class LoadTestSettings {
+
+    private static final String DEFAULT_MIX =
+            "login=5,refresh=15,jwt-call=45,api-key-call=25,logout=5,service-login=5";
+
+    private final int users;
+    private final int serviceAccounts;
+    private final String password;
+    private final int requestsPerSecond;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int primedSessions;
+    private final Map<Endpoint, Integer> mix;
+    private final Path outputDir;
+
+    private LoadTestSettings(Environment env) {
+        this.users = env.getProperty("loadtest.users", Integer.class, 1000);
+        this.serviceAccounts = env.getProperty("loadtest.service-accounts", Integer.class, 100);
+        this.password = env.getProperty("loadtest.password", "LoadTest@123");
+        this.requestsPerSecond = env.getProperty("loadtest.rate", Integer.class, 200);
+        this.warmup = env.getProperty("loadtest.warmup", Duration.class, Duration.ofSeconds(30));
+        this.duration = env.getProperty("loadtest.duration", Duration.class, Duration.ofSeconds(60));
+        this.primedSessions = Math.min(users, env.getProperty("loadtest.primed-sessions", Integer.class, 200));
+        this.mix = parseMix(env.getProperty("loadtest.mix", DEFAULT_MIX));
+        this.outputDir = Path.of(env.getProperty("loadtest.output-dir", "target/loadtest"));
+
+        if (requestsPerSecond <= 0 || users <= 0 || serviceAccounts <= 0) {
+            throw new IllegalArgumentException("loadtest.rate, loadtest.users and loadtest.service-accounts must be positive");
+        }
+    }
+
+    public static LoadTestSettings from(Environment env) {
+        return new LoadTestSettings(env);
+    }
+
+    public long getIntervalNanos() {
+        return 1_000_000_000L / requestsPerSecond;
+    }
+
+    /**
+     * Parse {@code endpoint=weight} pairs, e.g. {@code login=5,jwt-call=45}
+     */
+    private static Map<Endpoint, Integer> parseMix(String value) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            Endpoint endpoint = Endpoint.valueOf(parts[0].trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(endpoint, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix must give at least one endpoint a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,91 @@
+package com.bank.capp.loadtest;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.loadtest.StatementRecorder.Execution;
+import com.bank.capp.models.AuthenticationRequest;
+import com.bank.capp.services.AuthenticationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Counts the statements a login sends to the database, once with the user cache cold and once
+ * warm, and checks them against the login budget: at most one read of the user, one last-login
+ * update, one bulk revocation of old refresh tokens and one insert of the new one, plus an
+ * occasional sequence call for a new block of ids.
+ *
+ * Only statements on the users and refresh_tokens tables and sequence calls are counted, so the
+ * scheduled cache refresh and invalidation polls running meanwhile do not disturb the count.
+ */
+@Slf4j
+public class QueryCountHarness {
+
+    private static final String USERS = "users";
+    private static final String REFRESH_TOKENS = "refresh_tokens";
+    private static final int COLD_LOGIN_BUDGET = 5;
+    private static final int WARM_LOGIN_BUDGET = 4;
+
+    private final AuthenticationService authenticationService;
+    private final StatementRecorder statementRecorder;
+    private final CacheManager cacheManager;
+    private final List<String> failures = new ArrayList<>();
+
+    public QueryCountHarness(AuthenticationService authenticationService, StatementRecorder statementRecorder,
+                             CacheManager cacheManager) {
+        this.authenticationService = authenticationService;
+        this.statementRecorder = statementRecorder;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Log the user in twice and return the failures, empty when both logins stayed within budget
+     */
+    public List<String> run(String username, String password) {
+        AuthenticationRequest request = AuthenticationRequest.builder()
+                .username(username)
+                .password(password)
+                .build();
+
+        Cache users = cacheManager.getCache(ApiConstants.USER_CACHE);
+        if (users != null) {
+            users.evict(username);
+        }
+        check("cold login", login(request), 1, COLD_LOGIN_BUDGET);
+        check("warm login", login(request), 0, WARM_LOGIN_BUDGET);
+        return failures;
+    }
+
+    private List<Execution> login(AuthenticationRequest request) {
+        List<Execution> executions = statementRecorder.record(() -> authenticationService.authenticate(request));
+        return executions.stream()
+                .filter(execution -> execution.isSequenceCall()
+                        || execution.touches(USERS) || execution.touches(REFRESH_TOKENS))
+                .toList();
+    }
+
+    private void check(String login, List<Execution> executions, int userReads, int budget) {
+        log.info("{}: {} statements", login, executions.size());
+        executions.forEach(execution -> log.debug("  {}", execution.sql()));
+
+        expect(login, "user reads", executions, execution -> execution.is("select", USERS), userReads);
+        expect(login, "user writes", executions, execution -> execution.is("update", USERS), 1);
+        expect(login, "refresh token reads", executions, execution -> execution.is("select", REFRESH_TOKENS), 0);
+        expect(login, "refresh token revocations", executions, execution -> execution.is("update", REFRESH_TOKENS), 1);
+        expect(login, "refresh token inserts", executions, execution -> execution.is("insert", REFRESH_TOKENS), 1);
+        if (executions.size() > budget) {
+            failures.add(login + ": " + executions.size() + " statements, budget is " + budget);
+        }
+    }
+
+    private void expect(String login, String what, List<Execution> executions, Predicate<Execution> filter,
+                        int expected) {
+        long actual = executions.stream().filter(filter).count();
+        if (actual != expected) {
+            failures.add(login + ": expected " + expected + " " + what + " but saw " + actual);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.bank.capp.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Migrates a fresh schema on a PostgreSQL server and checks the plan of every repository query
+ * against the index it was designed for. The migrations use partial indexes, so this cannot run
+ * on the embedded H2 database.
+ *
+ * Plans are taken with sequential scans disabled, so the result does not depend on the size of the
+ * empty tables: a query that still gets a sequential scan has no index that can serve it. Keyset
+ * queries must also read their index in order instead of sorting. The schema is dropped afterwards.
+ */
+@Slf4j
+public class QueryPlanHarness {
+
+    private static final List<Case> CASES = List.of(
+            new Case("UserRepository.findByUsername", "SELECT * FROM users WHERE username = 'admin'",
+                    Set.of("users_username_key")),
+            new Case("UserRepository.findByEmail", "SELECT * FROM users WHERE email = 'admin@bank.com'",
+                    Set.of("users_email_key")),
+            new Case("UserRepository.updateLastLoginAt",
+                    "UPDATE users SET last_login_at = CURRENT_TIMESTAMP WHERE id = 1",
+                    Set.of("users_pkey")),
+            new Case("ServiceAccountRepository.findByServiceName",
+                    "SELECT * FROM service_accounts WHERE service_name = 'payments'",
+                    Set.of("service_accounts_service_name_key")),
+            new Case("ServiceAccountRepository.findByApiKeyHash",
+                    "SELECT * FROM service_accounts WHERE api_key_hash = 'hash'",
+                    Set.of("service_accounts_api_key_hash_key")),
+            new Case("ServiceAccountRepository.findAllByActive / streamAllByActive",
+                    "SELECT * FROM service_accounts WHERE active = true",
+                    Set.of("idx_service_accounts_active")),
+            new Case("ServiceAccountRepository.findAllByUpdatedAtAfter",
+                    "SELECT * FROM service_accounts WHERE updated_at > CURRENT_TIMESTAMP - INTERVAL '1 minute'",
+                    Set.of("idx_service_accounts_updated_at")),
+            new Case("ServiceAccountRepository.updateLastUsedAt",
+                    "UPDATE service_accounts SET last_used_at = CURRENT_TIMESTAMP WHERE id = 1",
+                    Set.of("service_accounts_pkey")),
+            new Case("ServiceAccountRepository.revokeAllByIdIn",
+                    "UPDATE service_accounts SET active = false, revoked_at = CURRENT_TIMESTAMP "
+                            + "WHERE id IN (1, 2, 3) AND active = true",
+                    Set.of("service_accounts_pkey", "idx_service_accounts_active")),
+            new Case("ServiceAccountRepository.findPage",
+                    "SELECT * FROM service_accounts WHERE id > 0 AND active = true ORDER BY id LIMIT 51",
+                    Set.of("service_accounts_pkey", "idx_service_accounts_active"), true),
+            new Case("RefreshTokenRepository.findByToken", "SELECT * FROM refresh_tokens WHERE token = 'token'",
+                    Set.of("refresh_tokens_token_key")),
+            new Case("RefreshTokenRepository.revokeByToken",
+                    "UPDATE refresh_tokens SET revoked = true WHERE token = 'token'",
+                    Set.of("refresh_tokens_token_key")),
+            new Case("RefreshTokenRepository.revokeAllByUserId",
+                    "UPDATE refresh_tokens SET revoked = true WHERE user_id = 1 AND revoked = false",
+                    Set.of("idx_refresh_tokens_user_id_id_live")),
+            new Case("RefreshTokenRepository.deleteExpiredTokens",
+                    "DELETE FROM refresh_tokens WHERE expiry_date < CURRENT_TIMESTAMP",
+                    Set.of("idx_refresh_tokens_expiry_date")),
+            new Case("RefreshTokenRepository.findLiveSessions",
+                    "SELECT id, user_id, expiry_date, revoked, created_at FROM refresh_tokens WHERE user_id = 1 "
+                            + "AND revoked = false AND expiry_date > CURRENT_TIMESTAMP AND id > 0 ORDER BY id LIMIT 50",
+                    Set.of("idx_refresh_tokens_user_id_id_live"), true),
+            new Case("ServiceAccountRefreshTokenRepository.findByToken",
+                    "SELECT * FROM service_account_refresh_tokens WHERE token = 'token'",
+                    Set.of("service_account_refresh_tokens_token_key")),
+            new Case("ServiceAccountRefreshTokenRepository.revokeByToken",
+                    "UPDATE service_account_refresh_tokens SET revoked = true WHERE token = 'token'",
+                    Set.of("service_account_refresh_tokens_token_key")),
+            new Case("ServiceAccountRefreshTokenRepository.revokeAllByServiceAccountId",
+                    "UPDATE service_account_refresh_tokens SET revoked = true "
+                            + "WHERE service_account_id = 1 AND revoked = false",
+                    Set.of("idx_sa_refresh_tokens_service_account_id_id_live")),
+            new Case("ServiceAccountRefreshTokenRepository.deleteExpiredTokens",
+                    "DELETE FROM service_account_refresh_tokens WHERE expiry_date < CURRENT_TIMESTAMP",
+                    Set.of("idx_sa_refresh_tokens_expiry_date")),
+            new Case("ServiceAccountRefreshTokenRepository.findLiveSessions",
+                    "SELECT id, service_account_id, expiry_date, revoked, created_at FROM service_account_refresh_tokens "
+                            + "WHERE service_account_id = 1 AND revoked = false AND expiry_date > CURRENT_TIMESTAMP "
+                            + "AND id > 0 ORDER BY id LIMIT 50",
+                    Set.of("idx_sa_refresh_tokens_service_account_id_id_live"), true),
+            new Case("JdbcCacheInvalidationBus poll",
+                    "SELECT id, cache_name, cache_key FROM cache_invalidations WHERE id > 1 ORDER BY id",
+                    Set.of("cache_invalidations_pkey"), true),
+            new Case("JdbcCacheInvalidationBus purge",
+                    "DELETE FROM cache_invalidations WHERE created_at < CURRENT_TIMESTAMP",
+                    Set.of("idx_cache_invalidations_created_at"))
+    );
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> failures = new ArrayList<>();
+
+    public QueryPlanHarness(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * A repository query, the indexes allowed to serve it and whether it must come out in index order
+     */
+    private record Case(String query, String sql, Set<String> indexes, boolean ordered) {
+
+        Case(String query, String sql, Set<String> indexes) {
+            this(query, sql, indexes, false);
+        }
+    }
+
+    /**
+     * Plan every query and return the failures, empty when each used its index
+     */
+    public List<String> run() throws SQLException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, username, password);
+        String schema = "query_plans_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(schema)
+                .createSchemas(true)
+                .load()
+                .migrate();
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + schema);
+            statement.execute("SET enable_seqscan = off");
+            for (Case queryCase : CASES) {
+                check(queryCase, plan(statement, queryCase.sql()));
+            }
+        } finally {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("DROP SCHEMA " + schema + " CASCADE");
+            }
+        }
+        return failures;
+    }
+
+    private JsonNode plan(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("EXPLAIN (FORMAT JSON) " + sql)) {
+            rs.next();
+            return objectMapper.readTree(rs.getString(1)).get(0).get("Plan");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable plan for " + sql, e);
+        }
+    }
+
+    private void check(Case queryCase, JsonNode plan) {
+        List<String> indexes = new ArrayList<>();
+        List<String> nodeTypes = new ArrayList<>();
+        collect(plan, indexes, nodeTypes);
+        log.debug("{}: {} using {}", queryCase.query(), nodeTypes, indexes);
+
+        if (indexes.stream().noneMatch(queryCase.indexes()::contains)) {
+            failures.add(queryCase.query() + ": expected one of " + queryCase.indexes() + " but plan was "
+                    + nodeTypes + " using " + indexes);
+        }
+        if (queryCase.ordered() && nodeTypes.stream().anyMatch(type -> type.contains("Sort"))) {
+            failures.add(queryCase.query() + ": sorts instead of reading " + queryCase.indexes() + " in order");
+        }
+    }
+
+    private static void collect(JsonNode node, List<String> indexes, List<String> nodeTypes) {
+        nodeTypes.add(node.path("Node Type").asText());
+        if (node.hasNonNull("Index Name")) {
+            indexes.add(node.get("Index Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, indexes, nodeTypes);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.bank.capp.loadtest;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.datasource.ReplicaLagGuard;
+import com.bank.capp.datasource.ReplicaRoutingDataSource;
+import com.bank.capp.services.JdbcCacheInvalidationBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Runs two nodes against two embedded databases, a primary and a replica that never catches up,
+ * and checks which database each node reads a changed user from.
+ *
+ * The writing node changes the user on the primary and publishes the eviction on the JDBC bus.
+ * Until the other node has polled the bus it still reads the replica. After the poll, its reload
+ * of that user must go to the primary while other users keep reading the replica.
+ */
+@Slf4j
+public class ReplicaLagHarness {
+
+    private static final String USERNAME = "lagging-user";
+    private static final String OTHER_USERNAME = "other-user";
+    private static final Duration MAX_LAG = Duration.ofMinutes(1);
+    private static final String CREATE_PROBE_SQL =
+            "CREATE TABLE lag_probe (username VARCHAR(100) PRIMARY KEY, email VARCHAR(255) NOT NULL)";
+    private static final String INSERT_PROBE_SQL = "INSERT INTO lag_probe (username, email) VALUES (?, ?)";
+    private static final String UPDATE_PROBE_SQL = "UPDATE lag_probe SET email = ? WHERE username = ?";
+    private static final String SELECT_PROBE_SQL = "SELECT email FROM lag_probe WHERE username = ?";
+
+    private final List<String> failures = new ArrayList<>();
+
+    /**
+     * Run every step and return the failures, empty when reads were routed as expected
+     */
+    public List<String> run() throws Exception {
+        DriverManagerDataSource primary = database("replica-lag-primary");
+        DriverManagerDataSource replica = database("replica-lag-replica");
+        try (ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica))) {
+            routing.afterPropertiesSet();
+            DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            readOnly.setReadOnly(true);
+
+            for (DataSource database : List.of(primary, replica)) {
+                JdbcTemplate setup = new JdbcTemplate(database);
+                setup.execute(CREATE_PROBE_SQL);
+                setup.update(INSERT_PROBE_SQL, USERNAME, "before@example.com");
+                setup.update(INSERT_PROBE_SQL, OTHER_USERNAME, "before@example.com");
+            }
+            // The bus log lives on the primary, as every write does
+            new JdbcTemplate(primary).execute(CacheInvalidationHarness.CREATE_TABLE_SQL);
+
+            ReplicaLagGuard writerGuard = new ReplicaLagGuard(true, MAX_LAG, 1000);
+            ReplicaLagGuard readerGuard = new ReplicaLagGuard(true, MAX_LAG, 1000);
+            CacheManager writerCaches = new ConcurrentMapCacheManager(ApiConstants.USER_CACHE);
+            JdbcCacheInvalidationBus writerBus = CacheInvalidationHarness.bus(jdbcTemplate, writerCaches, writerGuard);
+            JdbcCacheInvalidationBus readerBus = CacheInvalidationHarness.bus(
+                    jdbcTemplate, new ConcurrentMapCacheManager(ApiConstants.USER_CACHE), readerGuard);
+
+            // What the user change does on the writing node
+            jdbcTemplate.update(UPDATE_PROBE_SQL, "after@example.com", USERNAME);
+            writerGuard.recordWrite(ReplicaLagGuard.userKey(USERNAME));
+            writerBus.publish(ApiConstants.USER_CACHE, USERNAME);
+
+            expect("the writing node reads its own write", "after@example.com",
+                    read(writerGuard, readOnly, jdbcTemplate, USERNAME));
+            expect("the other node reads the lagging replica before the eviction arrives", "before@example.com",
+                    read(readerGuard, readOnly, jdbcTemplate, USERNAME));
+
+            readerBus.poll();
+            expect("the other node reloads from the primary once the eviction arrives", "after@example.com",
+                    read(readerGuard, readOnly, jdbcTemplate, USERNAME));
+            expect("unrelated users still read the replica", "before@example.com",
+                    read(readerGuard, readOnly, jdbcTemplate, OTHER_USERNAME));
+        } finally {
+            new JdbcTemplate(primary).execute("SHUTDOWN");
+            new JdbcTemplate(replica).execute("SHUTDOWN");
+        }
+        return failures;
+    }
+
+    /**
+     * Look the user up the way the user details service does, in a read-only transaction behind the guard
+     */
+    private static String read(ReplicaLagGuard guard, TransactionTemplate readOnly, JdbcTemplate jdbcTemplate,
+                               String username) {
+        return guard.read(ReplicaLagGuard.userKey(username), () -> readOnly.execute(
+                status -> jdbcTemplate.queryForObject(SELECT_PROBE_SQL, String.class, username)));
+    }
+
+    private void expect(String step, String expected, String actual) {
+        if (!Objects.equals(expected, actual)) {
+            failures.add(step + ": expected " + expected + " but was " + actual);
+        } else {
+            log.debug("Replica lag step passed: {}", step);
+        }
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        // Kept open between connections until the harness shuts it down
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
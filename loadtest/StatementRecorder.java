@@ -0,0 +1,179 @@
+package com.bank.capp.loadtest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Records every statement the application sends to the database while a check runs, so checks
+ * can count round trips instead of trusting the ORM to issue what it was told to.
+ *
+ * Wraps the application data source the way {@link DatabaseFaultInjector} does, but only when a
+ * check that needs it is enabled. A batch is recorded once with the number of rows it carried.
+ * Statements run on any thread are recorded, since principal lookups run on a pool of their own.
+ */
+@Component
+public class StatementRecorder implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final boolean enabled;
+    private volatile List<Execution> executions;
+
+    public StatementRecorder(
+            @Value("${loadtest.query-count-check:false}") boolean queryCountCheck,
+            @Value("${loadtest.batching-check:false}") boolean batchingCheck
+    ) {
+        this.enabled = queryCountCheck || batchingCheck;
+    }
+
+    /**
+     * One round trip: a statement, or a batch of {@code rows} executions of it
+     *
+     * @param rows 0 for a statement executed on its own
+     */
+    public record Execution(String sql, int rows) {
+
+        public boolean isBatch() {
+            return rows > 0;
+        }
+
+        public boolean isSequenceCall() {
+            String lower = sql.toLowerCase(Locale.ROOT);
+            return lower.contains("nextval(") || lower.contains("next value for");
+        }
+
+        public boolean touches(String table) {
+            return Pattern.compile("\\b" + Pattern.quote(table) + "\\b").matcher(sql.toLowerCase(Locale.ROOT)).find();
+        }
+
+        public boolean is(String verb, String table) {
+            return sql.stripLeading().toLowerCase(Locale.ROOT).startsWith(verb) && touches(table);
+        }
+    }
+
+    /**
+     * Run the action and return the statements sent while it ran
+     */
+    public synchronized List<Execution> record(Runnable action) {
+        if (!enabled) {
+            throw new IllegalStateException("Statement recording is not enabled");
+        }
+        List<Execution> recorded = new ArrayList<>();
+        executions = recorded;
+        try {
+            action.run();
+        } finally {
+            executions = null;
+        }
+        synchronized (recorded) {
+            return List.copyOf(recorded);
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource) {
+            return new RecordingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    private void add(String sql, int rows) {
+        List<Execution> recorded = executions;
+        if (recorded != null) {
+            synchronized (recorded) {
+                recorded.add(new Execution(String.valueOf(sql), rows));
+            }
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private Connection recording(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+            if (result instanceof CallableStatement statement) {
+                return recording(CallableStatement.class, statement, sql);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return recording(PreparedStatement.class, statement, sql);
+            }
+            if (result instanceof Statement statement) {
+                return recording(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    private <T extends Statement> T recording(Class<T> type, T statement, String preparedSql) {
+        int[] batched = new int[1];
+        String[] batchSql = {preparedSql};
+        return proxy(type, (proxy, method, args) -> {
+            String name = method.getName();
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            switch (name) {
+                case "addBatch" -> {
+                    batched[0]++;
+                    if (sql != null) {
+                        batchSql[0] = sql;
+                    }
+                }
+                case "clearBatch" -> batched[0] = 0;
+                case "executeBatch", "executeLargeBatch" -> {
+                    add(batchSql[0], batched[0]);
+                    batched[0] = 0;
+                }
+                case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate" -> add(sql, 0);
+                default -> {
+                }
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return recording(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return recording(super.getConnection(username, password));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.bank.capp.loadtest;
+
+import com.bank.capp.models.PrincipalType;
+import com.bank.capp.models.StoredToken;
+import com.bank.capp.repository.TokenStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs the same sequence of token store operations against a reference and a candidate
+ * store and reports every step whose observable result differs.
+ *
+ * Ids, creation times and therefore session order are backend specific and left out of
+ * the comparison; keyset paging is compared by following each store's own cursors.
+ */
+@Slf4j
+public class TokenStoreConformance {
+
+    private static final Comparator<View> BY_EXPIRY = Comparator.comparing(View::expiryDate);
+
+    private final TokenStore reference;
+    private final TokenStore candidate;
+    private final long userId;
+    private final long serviceAccountId;
+    private final List<String> mismatches = new ArrayList<>();
+
+    public TokenStoreConformance(TokenStore reference, TokenStore candidate, long userId, long serviceAccountId) {
+        this.reference = reference;
+        this.candidate = candidate;
+        this.userId = userId;
+        this.serviceAccountId = serviceAccountId;
+    }
+
+    /**
+     * Run every step and return the mismatches, empty when the stores agree
+     */
+    public List<String> run() {
+        // Both stores keep at least millisecond precision
+        LocalDateTime live = LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime expired = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MILLIS);
+
+        String first = token();
+        String second = token();
+        String service = token();
+        String stale = token();
+
+        check("unknown token is absent", store -> find(store, PrincipalType.USER, token()));
+
+        both(store -> store.save(PrincipalType.USER, userId, first, live));
+        both(store -> store.save(PrincipalType.USER, userId, second, live.plusMinutes(1)));
+        both(store -> store.save(PrincipalType.SERVICE_ACCOUNT, serviceAccountId, service, live));
+
+        check("saved token is found", store -> find(store, PrincipalType.USER, first));
+        check("token is not found under the other principal type",
+                store -> find(store, PrincipalType.SERVICE_ACCOUNT, first));
+        check("live sessions of the user", store -> sessions(store, PrincipalType.USER, userId, 0, 10));
+        check("keyset pages of one", store -> pages(store, PrincipalType.USER, userId, 1));
+
+        check("revoking a known token", store -> store.revoke(PrincipalType.USER, first));
+        check("revoking an unknown token", store -> store.revoke(PrincipalType.USER, token()));
+        check("revoked token is reported revoked", store -> find(store, PrincipalType.USER, first));
+        check("revoked token leaves the live sessions", store -> sessions(store, PrincipalType.USER, userId, 0, 10));
+
+        both(store -> store.revokeAll(PrincipalType.USER, userId));
+        check("revoke-all revokes every user token", store -> find(store, PrincipalType.USER, second));
+        check("revoke-all leaves other principals alone", store -> find(store, PrincipalType.SERVICE_ACCOUNT, service));
+
+        both(store -> store.save(PrincipalType.USER, userId, stale, expired));
+        check("expired token is reported expired",
+                store -> find(store, PrincipalType.USER, stale).map(view -> view.expiryDate().isBefore(LocalDateTime.now())));
+        check("expired token is not a live session", store -> sessions(store, PrincipalType.USER, userId, 0, 10));
+        both(TokenStore::purgeExpired);
+        check("purge removes expired tokens", store -> find(store, PrincipalType.USER, stale));
+        check("purge keeps live tokens", store -> find(store, PrincipalType.SERVICE_ACCOUNT, service));
+
+        return mismatches;
+    }
+
+    private void check(String step, Function<TokenStore, Object> observation) {
+        Object expected = observation.apply(reference);
+        Object actual = observation.apply(candidate);
+        if (!Objects.equals(expected, actual)) {
+            mismatches.add(step + ": expected " + expected + " but was " + actual);
+        } else {
+            log.debug("Conformance step passed: {}", step);
+        }
+    }
+
+    private void both(Consumer<TokenStore> action) {
+        action.accept(reference);
+        action.accept(candidate);
+    }
+
+    private static Optional<View> find(TokenStore store, PrincipalType principalType, String token) {
+        return store.findByToken(principalType, token).map(View::of);
+    }
+
+    private static List<View> sessions(TokenStore store, PrincipalType principalType, long principalId, long after, int limit) {
+        return store.findLiveSessions(principalType, principalId, after, limit).stream()
+                .map(View::of)
+                .sorted(BY_EXPIRY)
+                .toList();
+    }
+
+    /**
+     * Walk the live sessions page by page using the store's own ids as cursors,
+     * returning the page sizes followed by every session seen
+     */
+    private static List<Object> pages(TokenStore store, PrincipalType principalType, long principalId, int size) {
+        List<Integer> sizes = new ArrayList<>();
+        List<View> seen = new ArrayList<>();
+        long after = 0;
+        while (true) {
+            List<StoredToken> page = store.findLiveSessions(principalType, principalId, after, size);
+            if (page.isEmpty()) {
+                seen.sort(BY_EXPIRY);
+                return List.of(sizes, seen);
+            }
+            sizes.add(page.size());
+            page.forEach(token -> seen.add(View.of(token)));
+            after = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private static String token() {
+        return "conformance-" + UUID.randomUUID();
+    }
+
+    /**
+     * Backend-neutral part of a stored token
+     */
+    private record View(PrincipalType principalType, Long principalId, LocalDateTime expiryDate, boolean revoked) {
+
+        static View of(StoredToken token) {
+            return new View(token.getPrincipalType(), token.getPrincipalId(),
+                    token.getExpiryDate().truncatedTo(ChronoUnit.MILLIS), token.isRevoked());
+        }
+    }
+}
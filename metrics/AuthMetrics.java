@@ -0,0 +1,209 @@
+package com.bank.capp.metrics;
+
+import com.bank.capp.exceptions.AuthenticationFailureException;
+import com.bank.capp.models.PrincipalType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authentication.AccountStatusException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers for every authentication stage, published through the actuator metrics endpoints.
+ *
+ * All timers are registered up front for each combination of their low-cardinality tags
+ * (operation, principal type, outcome, failure reason) and looked up by enum ordinal, so
+ * recording is a nanoTime call and an array read rather than a registry lookup.
+ * Hit ratios of the users and apiKeys caches come from the Caffeine statistics the
+ * actuator binds as {@code cache.gets}.
+ */
+@Component
+public class AuthMetrics {
+
+    public enum JwtOperation {
+        SIGN,
+        VERIFY
+    }
+
+    public enum JwtOutcome {
+        SUCCESS,
+        EXPIRED,
+        INVALID
+    }
+
+    public enum FilterOutcome {
+        AUTHENTICATED,
+        REJECTED,
+        THROTTLED,
+        UNAVAILABLE,
+        ERROR
+    }
+
+    public enum SessionOperation {
+        LOGIN,
+        REFRESH,
+        LOGOUT
+    }
+
+    public enum FailureReason {
+        NONE,
+        BAD_CREDENTIALS,
+        ACCOUNT_DISABLED,
+        REJECTED,
+        ERROR
+    }
+
+    private final Timer[][] jwtTimers;
+    private final Timer[][] filterTimers;
+    private final Timer[][][] sessionTimers;
+    private final Timer userFound;
+    private final Timer userNotFound;
+    private final Timer passwordEncode;
+    private final Timer passwordMatch;
+    private final Timer passwordMismatch;
+
+    public AuthMetrics(MeterRegistry registry) {
+        JwtOperation[] jwtOperations = JwtOperation.values();
+        JwtOutcome[] jwtOutcomes = JwtOutcome.values();
+        jwtTimers = new Timer[jwtOperations.length][jwtOutcomes.length];
+        for (JwtOperation operation : jwtOperations) {
+            for (JwtOutcome outcome : jwtOutcomes) {
+                jwtTimers[operation.ordinal()][outcome.ordinal()] = Timer.builder("auth.jwt")
+                        .description("JWT signing and verification")
+                        .tag("operation", tag(operation))
+                        .tag("outcome", tag(outcome))
+                        .register(registry);
+            }
+        }
+
+        PrincipalType[] principalTypes = PrincipalType.values();
+        FilterOutcome[] filterOutcomes = FilterOutcome.values();
+        filterTimers = new Timer[principalTypes.length][filterOutcomes.length];
+        for (PrincipalType type : principalTypes) {
+            for (FilterOutcome outcome : filterOutcomes) {
+                filterTimers[type.ordinal()][outcome.ordinal()] = Timer.builder("auth.filter")
+                        .description("Request authentication in the security filters")
+                        .tag("principal", tag(type))
+                        .tag("outcome", tag(outcome))
+                        .register(registry);
+            }
+        }
+
+        SessionOperation[] sessionOperations = SessionOperation.values();
+        FailureReason[] reasons = FailureReason.values();
+        sessionTimers = new Timer[sessionOperations.length][principalTypes.length][reasons.length];
+        for (SessionOperation operation : sessionOperations) {
+            for (PrincipalType type : principalTypes) {
+                for (FailureReason reason : reasons) {
+                    sessionTimers[operation.ordinal()][type.ordinal()][reason.ordinal()] = Timer.builder("auth.session")
+                            .description("Login, refresh and logout")
+                            .tag("operation", tag(operation))
+                            .tag("principal", tag(type))
+                            .tag("outcome", reason == FailureReason.NONE ? "success" : "failure")
+                            .tag("reason", tag(reason))
+                            .register(registry);
+                }
+            }
+        }
+
+        userFound = userLoadTimer(registry, "found");
+        userNotFound = userLoadTimer(registry, "not_found");
+        passwordEncode = passwordTimer(registry, "encode", "success");
+        passwordMatch = passwordTimer(registry, "matches", "success");
+        passwordMismatch = passwordTimer(registry, "matches", "mismatch");
+    }
+
+    public void recordJwt(JwtOperation operation, JwtOutcome outcome, long startNanos) {
+        record(jwtTimers[operation.ordinal()][outcome.ordinal()], startNanos);
+    }
+
+    public void recordFilter(PrincipalType type, FilterOutcome outcome, long startNanos) {
+        record(filterTimers[type.ordinal()][outcome.ordinal()], startNanos);
+    }
+
+    public void recordUserLoad(boolean found, long startNanos) {
+        record(found ? userFound : userNotFound, startNanos);
+    }
+
+    public void recordPasswordEncode(long startNanos) {
+        record(passwordEncode, startNanos);
+    }
+
+    public void recordPasswordMatch(boolean matched, long startNanos) {
+        record(matched ? passwordMatch : passwordMismatch, startNanos);
+    }
+
+    public void recordSession(SessionOperation operation, PrincipalType type, FailureReason reason, long startNanos) {
+        record(sessionTimers[operation.ordinal()][type.ordinal()][reason.ordinal()], startNanos);
+    }
+
+    /**
+     * Time a login, refresh or logout, tagging failures with the reason of the exception thrown
+     */
+    public <T> T timeSession(SessionOperation operation, PrincipalType type, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            recordSession(operation, type, FailureReason.NONE, start);
+            return result;
+        } catch (RuntimeException e) {
+            recordSession(operation, type, failureReason(e), start);
+            throw e;
+        }
+    }
+
+    public void timeSession(SessionOperation operation, PrincipalType type, Runnable action) {
+        timeSession(operation, type, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static FailureReason failureReason(RuntimeException e) {
+        if (e instanceof AuthenticationFailureException failure) {
+            return switch (failure.getFailure()) {
+                case BAD_CREDENTIALS, INVALID_SERVICE_CREDENTIALS -> FailureReason.BAD_CREDENTIALS;
+                case SERVICE_ACCOUNT_INACTIVE -> FailureReason.ACCOUNT_DISABLED;
+                default -> FailureReason.REJECTED;
+            };
+        }
+        if (e instanceof BadCredentialsException || e instanceof UsernameNotFoundException) {
+            return FailureReason.BAD_CREDENTIALS;
+        }
+        if (e instanceof AccountStatusException) {
+            return FailureReason.ACCOUNT_DISABLED;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return FailureReason.REJECTED;
+        }
+        return FailureReason.ERROR;
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer userLoadTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.user.load")
+                .description("User lookups that missed the user cache")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Timer passwordTimer(MeterRegistry registry, String operation, String outcome) {
+        return Timer.builder("auth.password")
+                .description("Password encoder calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
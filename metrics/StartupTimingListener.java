@@ -0,0 +1,44 @@
+package com.bank.capp.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports how long after JVM start the node served its first successful authenticated
+ * request, the figure that decides how fast scaled-out capacity becomes useful.
+ */
+@Slf4j
+@Component
+public class StartupTimingListener {
+
+    private final AtomicBoolean recorded = new AtomicBoolean();
+    private final AtomicLong firstAuthenticatedRequestMillis = new AtomicLong();
+
+    public StartupTimingListener(MeterRegistry registry) {
+        TimeGauge.builder("application.first.authenticated.request", firstAuthenticatedRequestMillis,
+                        TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time from JVM start to the first successful authenticated request")
+                .register(registry);
+    }
+
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (recorded.get() || event.getUserName() == null || event.wasFailure() || event.getStatusCode() >= 400) {
+            return;
+        }
+        if (recorded.compareAndSet(false, true)) {
+            long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+            firstAuthenticatedRequestMillis.set(uptime);
+            log.info("First authenticated request served {} ms after JVM start ({})", uptime, event.getRequestUrl());
+        }
+    }
+}
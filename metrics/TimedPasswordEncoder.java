@@ -0,0 +1,45 @@
+package com.bank.capp.metrics;
+
+import com.bank.capp.jfr.PasswordEncoderEvent;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Records the time spent in the configured password encoder as metrics and flight recorder events
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final AuthMetrics authMetrics;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, AuthMetrics authMetrics) {
+        this.delegate = delegate;
+        this.authMetrics = authMetrics;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordEncoderEvent event = new PasswordEncoderEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String encoded = delegate.encode(rawPassword);
+        authMetrics.recordPasswordEncode(start);
+        event.complete("encode", true);
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordEncoderEvent event = new PasswordEncoderEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean matched = delegate.matches(rawPassword, encodedPassword);
+        authMetrics.recordPasswordMatch(matched, start);
+        event.complete("matches", matched);
+        return matched;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
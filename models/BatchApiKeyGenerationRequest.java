@@ -0,0 +1,23 @@
+package com.bank.capp.models;
+
+import com.bank.capp.constants.ApiConstants;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchApiKeyGenerationRequest {
+
+    @NotEmpty(message = ApiConstants.BATCH_REQUIRED)
+    @Size(max = ApiConstants.MAX_BATCH_SIZE, message = ApiConstants.BATCH_TOO_LARGE)
+    private List<@Valid ApiKeyGenerationRequest> accounts;
+}
@@ -0,0 +1,9 @@
+package com.bank.capp.models;
+
+/**
+ * Kind of principal a refresh token was issued to
+ */
+public enum PrincipalType {
+    USER,
+    SERVICE_ACCOUNT
+}
@@ -0,0 +1,99 @@
+package com.bank.capp.models;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Permission granted to a service account. Stored on the account as a bitmask and carried
+ * in its access tokens as the space separated {@code scope} claim, so authorization is a
+ * mask test. Bits are persisted: never renumber a scope, only add new ones.
+ */
+@Getter
+public enum Scope {
+
+    SERVICE_ACCOUNTS_READ("service-accounts:read", 0),
+    // Rotating a key yields that account's scopes, so services may only change accounts within their own
+    API_KEYS_WRITE("api-keys:write", 1),
+    QUOTAS_WRITE("quotas:write", 2),
+    USERS_WRITE("users:write", 3);
+
+    /**
+     * Bits from here up are left to role grants, see {@code Authorities.grantOf}
+     */
+    public static final int MAX_BITS = 48;
+
+    private static final Map<String, Scope> BY_VALUE = new HashMap<>();
+
+    static {
+        for (Scope scope : values()) {
+            BY_VALUE.put(scope.value, scope);
+        }
+    }
+
+    private final String value;
+    private final long bit;
+
+    Scope(String value, int bit) {
+        this.value = value;
+        this.bit = 1L << bit;
+    }
+
+    /**
+     * Scope with the given claim value, or null if unknown
+     */
+    public static Scope fromValue(String value) {
+        return BY_VALUE.get(value);
+    }
+
+    public static long mask(Collection<Scope> scopes) {
+        long mask = 0;
+        for (Scope scope : scopes) {
+            mask |= scope.bit;
+        }
+        return mask;
+    }
+
+    public static Set<Scope> fromMask(long mask) {
+        Set<Scope> scopes = EnumSet.noneOf(Scope.class);
+        for (Scope scope : values()) {
+            if ((mask & scope.bit) != 0) {
+                scopes.add(scope);
+            }
+        }
+        return scopes;
+    }
+
+    /**
+     * Mask of a {@code scope} claim; unknown values are ignored
+     */
+    public static long parse(String claim) {
+        if (claim == null || claim.isEmpty()) {
+            return 0;
+        }
+        long mask = 0;
+        for (String value : claim.split(" ")) {
+            Scope scope = BY_VALUE.get(value);
+            if (scope != null) {
+                mask |= scope.bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * {@code scope} claim of a mask
+     */
+    public static String format(long mask) {
+        StringJoiner claim = new StringJoiner(" ");
+        for (Scope scope : fromMask(mask)) {
+            claim.add(scope.value);
+        }
+        return claim.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.bank.capp.models;
+
+import com.bank.capp.constants.ApiConstants;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request quota of a service account. Leaving the rate empty restores the default quota;
+ * leaving the burst empty allows one second worth of requests back to back.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ServiceAccountQuotaRequest {
+
+    @Min(value = 1, message = ApiConstants.QUOTA_RATE_MIN)
+    private Integer rateLimitPerSecond;
+
+    @Min(value = 1, message = ApiConstants.QUOTA_BURST_MIN)
+    private Integer rateLimitBurst;
+}
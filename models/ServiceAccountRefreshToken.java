@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class ServiceAccountRefreshToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "service_account_refresh_tokens_seq")
+    @SequenceGenerator(name = "service_account_refresh_tokens_seq", sequenceName = "service_account_refresh_tokens_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
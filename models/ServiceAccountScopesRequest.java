@@ -0,0 +1,24 @@
+package com.bank.capp.models;
+
+import com.bank.capp.constants.ApiConstants;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Scopes of a service account, e.g. {@code ["service-accounts:read", "api-keys:write"]};
+ * an empty set removes all scopes
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ServiceAccountScopesRequest {
+
+    @NotNull(message = ApiConstants.SCOPES_REQUIRED)
+    private Set<String> scopes;
+}
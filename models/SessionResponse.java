@@ -0,0 +1,22 @@
+package com.bank.capp.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Live refresh session of a principal; the token itself is never listed
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionResponse {
+
+    private Long id;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,29 @@
+package com.bank.capp.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Backend-neutral view of a refresh token held by a {@link com.bank.capp.repository.TokenStore}
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StoredToken {
+
+    private Long id;
+    private PrincipalType principalType;
+    private Long principalId;
+    private LocalDateTime expiryDate;
+    private boolean revoked;
+    private LocalDateTime createdAt;
+
+    public boolean isExpired() {
+        return LocalDateTime.now().isAfter(expiryDate);
+    }
+}
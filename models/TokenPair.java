@@ -0,0 +1,14 @@
+package com.bank.capp.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Access and refresh token issued together at login
+ */
+@Data
+@AllArgsConstructor
+public class TokenPair {
+    private String accessToken;
+    private String refreshToken;
+}
@@ -0,0 +1,112 @@
+package com.bank.capp.repository;
+
+import com.bank.capp.datasource.ReplicaLagGuard;
+import com.bank.capp.models.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Token store backed by the refresh_tokens and service_account_refresh_tokens tables.
+ * Token lookups always read the primary: a token saved or revoked on another node moments ago
+ * is not yet known to that node's replica lag guard, and may be missing or still live on a replica.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "application.security.token-store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaTokenStore implements TokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final ServiceAccountRefreshTokenRepository serviceAccountRefreshTokenRepository;
+    private final UserRepository userRepository;
+    private final ServiceAccountRepository serviceAccountRepository;
+    private final ReplicaLagGuard replicaLagGuard;
+
+    @Override
+    @Transactional
+    public void save(PrincipalType principalType, Long principalId, String token, LocalDateTime expiryDate) {
+        if (principalType == PrincipalType.USER) {
+            refreshTokenRepository.save(RefreshToken.builder()
+                    .user(userRepository.getReferenceById(principalId))
+                    .token(token)
+                    .expiryDate(expiryDate)
+                    .revoked(false)
+                    .build());
+        } else {
+            serviceAccountRefreshTokenRepository.save(ServiceAccountRefreshToken.builder()
+                    .serviceAccount(serviceAccountRepository.getReferenceById(principalId))
+                    .token(token)
+                    .expiryDate(expiryDate)
+                    .revoked(false)
+                    .build());
+        }
+    }
+
+    @Override
+    public Optional<StoredToken> findByToken(PrincipalType principalType, String token) {
+        return replicaLagGuard.onPrimary(() -> lookup(principalType, token));
+    }
+
+    private Optional<StoredToken> lookup(PrincipalType principalType, String token) {
+        if (principalType == PrincipalType.USER) {
+            return refreshTokenRepository.findByToken(token).map(rt -> StoredToken.builder()
+                    .id(rt.getId())
+                    .principalType(PrincipalType.USER)
+                    .principalId(rt.getUser().getId())
+                    .expiryDate(rt.getExpiryDate())
+                    .revoked(rt.isRevoked())
+                    .createdAt(rt.getCreatedAt())
+                    .build());
+        }
+        return serviceAccountRefreshTokenRepository.findByToken(token).map(rt -> StoredToken.builder()
+                .id(rt.getId())
+                .principalType(PrincipalType.SERVICE_ACCOUNT)
+                .principalId(rt.getServiceAccount().getId())
+                .expiryDate(rt.getExpiryDate())
+                .revoked(rt.isRevoked())
+                .createdAt(rt.getCreatedAt())
+                .build());
+    }
+
+    @Override
+    @Transactional
+    public boolean revoke(PrincipalType principalType, String token) {
+        int updated = principalType == PrincipalType.USER
+                ? refreshTokenRepository.revokeByToken(token)
+                : serviceAccountRefreshTokenRepository.revokeByToken(token);
+        return updated > 0;
+    }
+
+    @Override
+    @Transactional
+    public void revokeAll(PrincipalType principalType, Long principalId) {
+        if (principalType == PrincipalType.USER) {
+            refreshTokenRepository.revokeAllByUserId(principalId);
+        } else {
+            serviceAccountRefreshTokenRepository.revokeAllByServiceAccountId(principalId);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StoredToken> findLiveSessions(PrincipalType principalType, Long principalId, long afterId, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest page = PageRequest.ofSize(limit);
+        return principalType == PrincipalType.USER
+                ? refreshTokenRepository.findLiveSessions(principalId, now, afterId, page)
+                : serviceAccountRefreshTokenRepository.findLiveSessions(principalId, now, afterId, page);
+    }
+
+    @Override
+    @Transactional
+    public int purgeExpired() {
+        return refreshTokenRepository.deleteExpiredTokens()
+                + serviceAccountRefreshTokenRepository.deleteExpiredTokens();
+    }
+}
@@ -0,0 +1,615 @@
+package com.bank.capp.repository;
+
+import com.bank.capp.models.PrincipalType;
+import com.bank.capp.models.StoredToken;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded token store kept in a memory-mapped file outside the Java heap.
+ *
+ * The file is an open-addressing hash table of fixed 64 byte slots keyed by the first
+ * 192 bits of the SHA-256 digest of the token, so raw tokens never reach the disk. Writes
+ * land in the OS page cache and survive an application restart; the mapping is forced to
+ * disk on purge and on shutdown. A small on-heap index of slots per principal is rebuilt
+ * from the file at startup to keep revoke-all off the full-table scan.
+ *
+ * The file is local to one node: tokens issued here are unknown to any other instance, so
+ * the store refuses to start when replica routing or cross-node cache invalidation shows the
+ * application runs as more than one node. Use the JPA store there.
+ *
+ * Every token gets a session id from a counter kept in the file header. Ids increase with
+ * issue order and stay with the token when it moves to another slot, so they can serve as
+ * keyset cursors for {@link #findLiveSessions}.
+ *
+ * Occupied and deleted slots together are kept below {@link #MAX_LOAD} of the table, so
+ * every probe sequence ends at an empty slot. Crossing it rehashes into a new file, which
+ * drops the tombstones and doubles the table once live tokens alone pass half the limit.
+ * The copy is made under the read lock, so token lookups keep being served while it runs;
+ * only writes wait for the swap.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "application.security.token-store.type", havingValue = "mapped")
+public class MappedFileTokenStore implements TokenStore {
+
+    private static final int MAGIC = 0x43415054;
+    private static final int FORMAT_VERSION = 2;
+    private static final int LEGACY_FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 64;
+    private static final int NEXT_SESSION_ID_OFFSET = 16;
+
+    // Slot layout
+    private static final int STATE_OFFSET = 0;
+    private static final int TYPE_OFFSET = 1;
+    private static final int REVOKED_OFFSET = 2;
+    private static final int PRINCIPAL_ID_OFFSET = 8;
+    private static final int CREATED_AT_OFFSET = 16;
+    private static final int EXPIRY_OFFSET = 24;
+    private static final int SESSION_ID_OFFSET = 32;
+    private static final int DIGEST_OFFSET = 40;
+    // Format 1 slots kept the whole digest here and had no session id
+    private static final int LEGACY_DIGEST_OFFSET = 32;
+
+    private static final byte SLOT_EMPTY = 0;
+    private static final byte SLOT_OCCUPIED = 1;
+    private static final byte SLOT_DELETED = 2;
+
+    private static final double MAX_LOAD = 0.75;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Path file;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rehashLock = new ReentrantLock();
+    private final Map<Long, List<Integer>> slotsByPrincipal = new HashMap<>();
+
+    // Replaced by the swap at the end of a rehash, which runs under the write lock
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int mask;
+    private int occupied;
+    private int deleted;
+    private long nextSessionId = 1;
+    // Bumped by every write, so a rehash can tell whether its copy is still current
+    private long modifications;
+
+    public MappedFileTokenStore(
+            @Value("${application.security.token-store.mapped.path:data/refresh-tokens.dat}") String path,
+            @Value("${application.security.token-store.mapped.capacity:1048576}") int requestedCapacity,
+            @Value("${application.datasource.replica.enabled:false}") boolean replicaRouting,
+            @Value("${application.cache.invalidation.mode:local}") String invalidationMode
+    ) throws IOException {
+        if (replicaRouting) {
+            throw new IllegalStateException("The mapped token store is single-node and cannot run with replica "
+                    + "routing; use application.security.token-store.type=jpa");
+        }
+        if (!"local".equals(invalidationMode)) {
+            throw new IllegalStateException("The mapped token store is single-node and cannot run with "
+                    + invalidationMode + " cache invalidation; use application.security.token-store.type=jpa");
+        }
+
+        int configuredCapacity = Integer.highestOneBit(Math.max(requestedCapacity - 1, 1)) << 1;
+        if (mappedSize(configuredCapacity) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Token store capacity too large: " + requestedCapacity);
+        }
+
+        this.file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        boolean existing = channel.size() > 0;
+        // An existing file keeps its own table size, which rehashes may have grown past the configured one
+        int version = existing ? readHeader() : FORMAT_VERSION;
+        if (!existing) {
+            this.capacity = configuredCapacity;
+        }
+        this.mask = capacity - 1;
+
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize(capacity));
+        if (!existing) {
+            writeHeader(buffer, capacity, nextSessionId);
+        }
+
+        if (version == LEGACY_FORMAT_VERSION) {
+            // Session ids are handed out in slot order; the copy replaces the file only once complete
+            swap(copy(capacity, LEGACY_DIGEST_OFFSET), capacity);
+            log.info("Upgraded mapped token store at {} to format {}", file.toAbsolutePath(), FORMAT_VERSION);
+        } else {
+            nextSessionId = buffer.getLong(NEXT_SESSION_ID_OFFSET);
+            rebuildIndex();
+        }
+        log.info("Opened mapped token store at {} with {} slots ({} in use, {} deleted)",
+                file.toAbsolutePath(), capacity, occupied, deleted);
+    }
+
+    @Override
+    public void save(PrincipalType principalType, Long principalId, String token, LocalDateTime expiryDate) {
+        long[] digest = digest(token);
+        while (!tryStore(principalType, principalId, digest, expiryDate)) {
+            rehash();
+        }
+    }
+
+    /**
+     * Write the token into its slot, or return false without writing when the table needs a rehash first
+     */
+    private boolean tryStore(PrincipalType principalType, Long principalId, long[] digest, LocalDateTime expiryDate) {
+        lock.writeLock().lock();
+        try {
+            int slot = locate(principalType, digest);
+            if (slot >= 0) {
+                unindex(slot);
+            } else {
+                if (!hasRoomForOne()) {
+                    return false;
+                }
+                slot = freeSlot(digest);
+                if (buffer.get(offset(slot) + STATE_OFFSET) == SLOT_DELETED) {
+                    deleted--;
+                }
+                occupied++;
+            }
+
+            int offset = offset(slot);
+            buffer.put(offset + TYPE_OFFSET, (byte) principalType.ordinal());
+            buffer.put(offset + REVOKED_OFFSET, (byte) 0);
+            buffer.putLong(offset + PRINCIPAL_ID_OFFSET, principalId);
+            buffer.putLong(offset + CREATED_AT_OFFSET, System.currentTimeMillis());
+            buffer.putLong(offset + EXPIRY_OFFSET, toEpochMillis(expiryDate));
+            buffer.putLong(offset + SESSION_ID_OFFSET, nextSessionId++);
+            for (int i = 0; i < digest.length; i++) {
+                buffer.putLong(offset + DIGEST_OFFSET + i * Long.BYTES, digest[i]);
+            }
+            buffer.put(offset + STATE_OFFSET, SLOT_OCCUPIED);
+            buffer.putLong(NEXT_SESSION_ID_OFFSET, nextSessionId);
+            modifications++;
+
+            slotsByPrincipal.computeIfAbsent(principalKey(principalType, principalId), k -> new ArrayList<>(2))
+                    .add(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<StoredToken> findByToken(PrincipalType principalType, String token) {
+        long[] digest = digest(token);
+
+        lock.readLock().lock();
+        try {
+            int slot = locate(principalType, digest);
+            return slot < 0 ? Optional.empty() : Optional.of(read(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean revoke(PrincipalType principalType, String token) {
+        long[] digest = digest(token);
+
+        lock.writeLock().lock();
+        try {
+            int slot = locate(principalType, digest);
+            if (slot < 0) {
+                return false;
+            }
+            buffer.put(offset(slot) + REVOKED_OFFSET, (byte) 1);
+            modifications++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void revokeAll(PrincipalType principalType, Long principalId) {
+        lock.writeLock().lock();
+        try {
+            List<Integer> slots = slotsByPrincipal.get(principalKey(principalType, principalId));
+            if (slots != null) {
+                for (int slot : slots) {
+                    buffer.put(offset(slot) + REVOKED_OFFSET, (byte) 1);
+                }
+                modifications++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<StoredToken> findLiveSessions(PrincipalType principalType, Long principalId, long afterId, int limit) {
+        long now = System.currentTimeMillis();
+        List<Integer> live = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            List<Integer> slots = slotsByPrincipal.get(principalKey(principalType, principalId));
+            if (slots == null) {
+                return List.of();
+            }
+            for (int slot : slots) {
+                int offset = offset(slot);
+                if (buffer.getLong(offset + SESSION_ID_OFFSET) > afterId
+                        && buffer.get(offset + REVOKED_OFFSET) == 0
+                        && buffer.getLong(offset + EXPIRY_OFFSET) > now) {
+                    live.add(slot);
+                }
+            }
+            // A principal holds only a handful of slots
+            live.sort(Comparator.comparingLong(this::sessionId));
+            List<StoredToken> sessions = new ArrayList<>(Math.min(limit, live.size()));
+            for (int i = 0; i < live.size() && i < limit; i++) {
+                sessions.add(read(live.get(i)));
+            }
+            return sessions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = 0;
+
+        lock.writeLock().lock();
+        try {
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = offset(slot);
+                if (buffer.get(offset + STATE_OFFSET) == SLOT_OCCUPIED
+                        && buffer.getLong(offset + EXPIRY_OFFSET) < now) {
+                    unindex(slot);
+                    buffer.put(offset + STATE_OFFSET, SLOT_DELETED);
+                    purged++;
+                }
+            }
+            occupied -= purged;
+            deleted += purged;
+            modifications++;
+            buffer.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return purged;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean hasRoomForOne() {
+        return occupied + deleted + 1 <= maxLoad(capacity);
+    }
+
+    /**
+     * Rebuild the table so another insert fits below the load limit. The copy is taken under the read
+     * lock and swapped in under the write lock, unless a write landed in between, in which case the
+     * copy is taken again while writes are held off.
+     */
+    private void rehash() {
+        rehashLock.lock();
+        try {
+            long started = System.nanoTime();
+            int newCapacity;
+            long copiedAt;
+            Path next;
+
+            lock.readLock().lock();
+            try {
+                if (hasRoomForOne()) {
+                    // Another writer rehashed first
+                    return;
+                }
+                newCapacity = rehashCapacity();
+                copiedAt = modifications;
+                next = copy(newCapacity, DIGEST_OFFSET);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            lock.writeLock().lock();
+            try {
+                long writesHeld = System.nanoTime();
+                if (modifications != copiedAt) {
+                    newCapacity = rehashCapacity();
+                    next = copy(newCapacity, DIGEST_OFFSET);
+                }
+                int previousCapacity = capacity;
+                int dropped = deleted;
+                swap(next, newCapacity);
+                log.info("Rehashed mapped token store from {} to {} slots, dropping {} deleted slots in {} ms "
+                                + "({} ms holding writes)", previousCapacity, newCapacity, dropped,
+                        (System.nanoTime() - started) / 1_000_000, (System.nanoTime() - writesHeld) / 1_000_000);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rehash refresh token store", e);
+        } finally {
+            rehashLock.unlock();
+        }
+    }
+
+    /**
+     * Table size for the next rehash: doubled once live tokens pass half the load limit
+     */
+    private int rehashCapacity() {
+        int target = occupied + 1 > maxLoad(capacity) / 2 ? capacity << 1 : capacity;
+        if (mappedSize(target) > Integer.MAX_VALUE) {
+            if (occupied + 1 > maxLoad(capacity)) {
+                throw new IllegalStateException("Refresh token store is full");
+            }
+            target = capacity;
+        }
+        return target;
+    }
+
+    /**
+     * Copy the occupied slots into a new table file next to the current one, dropping all tombstones.
+     * Slots of a format 1 file, whose digest starts at {@link #LEGACY_DIGEST_OFFSET}, are given session ids.
+     */
+    private Path copy(int newCapacity, int sourceDigestOffset) throws IOException {
+        int newMask = newCapacity - 1;
+        boolean legacy = sourceDigestOffset != DIGEST_OFFSET;
+        Path next = file.resolveSibling(file.getFileName() + ".rehash");
+
+        try (FileChannel nextChannel = FileChannel.open(next, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer target = nextChannel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize(newCapacity));
+
+            for (int slot = 0; slot < capacity; slot++) {
+                int source = offset(slot);
+                if (buffer.get(source + STATE_OFFSET) != SLOT_OCCUPIED) {
+                    continue;
+                }
+                int targetSlot = home(buffer.getLong(source + sourceDigestOffset), newMask);
+                while (target.get(offset(targetSlot) + STATE_OFFSET) != SLOT_EMPTY) {
+                    targetSlot = (targetSlot + 1) & newMask;
+                }
+                int destination = offset(targetSlot);
+                if (legacy) {
+                    for (int i = 0; i < SESSION_ID_OFFSET; i += Long.BYTES) {
+                        target.putLong(destination + i, buffer.getLong(source + i));
+                    }
+                    target.putLong(destination + SESSION_ID_OFFSET, nextSessionId++);
+                    for (int i = 0; i < SLOT_SIZE - DIGEST_OFFSET; i += Long.BYTES) {
+                        target.putLong(destination + DIGEST_OFFSET + i, buffer.getLong(source + sourceDigestOffset + i));
+                    }
+                } else {
+                    for (int i = 0; i < SLOT_SIZE; i += Long.BYTES) {
+                        target.putLong(destination + i, buffer.getLong(source + i));
+                    }
+                }
+            }
+            writeHeader(target, newCapacity, nextSessionId);
+            target.force();
+        }
+        return next;
+    }
+
+    /**
+     * Replace the table file with a copy and rebuild the index over it
+     */
+    private void swap(Path next, int newCapacity) throws IOException {
+        channel.close();
+        Files.move(next, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize(newCapacity));
+        buffer.putLong(NEXT_SESSION_ID_OFFSET, nextSessionId);
+
+        capacity = newCapacity;
+        mask = newCapacity - 1;
+        slotsByPrincipal.clear();
+        rebuildIndex();
+        modifications++;
+    }
+
+    /**
+     * Find the slot holding the given digest, or -1 when absent.
+     * The load limit leaves an empty slot on every probe sequence, where a miss stops.
+     */
+    private int locate(PrincipalType principalType, long[] digest) {
+        int slot = home(digest);
+        for (int probe = 0; probe < capacity; probe++) {
+            int offset = offset(slot);
+            byte state = buffer.get(offset + STATE_OFFSET);
+            if (state == SLOT_EMPTY) {
+                return -1;
+            }
+            if (state == SLOT_OCCUPIED
+                    && buffer.get(offset + TYPE_OFFSET) == principalType.ordinal()
+                    && digestMatches(offset, digest)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Find the first reusable slot on the probe sequence of the given digest
+     */
+    private int freeSlot(long[] digest) {
+        int slot = home(digest);
+        for (int probe = 0; probe < capacity; probe++) {
+            if (buffer.get(offset(slot) + STATE_OFFSET) != SLOT_OCCUPIED) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        throw new IllegalStateException("Refresh token store is full");
+    }
+
+    private boolean digestMatches(int offset, long[] digest) {
+        for (int i = 0; i < digest.length; i++) {
+            if (buffer.getLong(offset + DIGEST_OFFSET + i * Long.BYTES) != digest[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private StoredToken read(int slot) {
+        int offset = offset(slot);
+        return StoredToken.builder()
+                .id(buffer.getLong(offset + SESSION_ID_OFFSET))
+                .principalType(PrincipalType.values()[buffer.get(offset + TYPE_OFFSET)])
+                .principalId(buffer.getLong(offset + PRINCIPAL_ID_OFFSET))
+                .createdAt(toLocalDateTime(buffer.getLong(offset + CREATED_AT_OFFSET)))
+                .expiryDate(toLocalDateTime(buffer.getLong(offset + EXPIRY_OFFSET)))
+                .revoked(buffer.get(offset + REVOKED_OFFSET) != 0)
+                .build();
+    }
+
+    private long sessionId(int slot) {
+        return buffer.getLong(offset(slot) + SESSION_ID_OFFSET);
+    }
+
+    private void unindex(int slot) {
+        int offset = offset(slot);
+        PrincipalType principalType = PrincipalType.values()[buffer.get(offset + TYPE_OFFSET)];
+        long key = principalKey(principalType, buffer.getLong(offset + PRINCIPAL_ID_OFFSET));
+        List<Integer> slots = slotsByPrincipal.get(key);
+        if (slots != null) {
+            slots.remove(Integer.valueOf(slot));
+            if (slots.isEmpty()) {
+                slotsByPrincipal.remove(key);
+            }
+        }
+    }
+
+    private void rebuildIndex() {
+        occupied = 0;
+        deleted = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = offset(slot);
+            byte state = buffer.get(offset + STATE_OFFSET);
+            if (state == SLOT_DELETED) {
+                deleted++;
+            } else if (state == SLOT_OCCUPIED) {
+                occupied++;
+                PrincipalType principalType = PrincipalType.values()[buffer.get(offset + TYPE_OFFSET)];
+                long principalId = buffer.getLong(offset + PRINCIPAL_ID_OFFSET);
+                // Never hand out an id again, even if the header counter was lost with a crash
+                nextSessionId = Math.max(nextSessionId, buffer.getLong(offset + SESSION_ID_OFFSET) + 1);
+                slotsByPrincipal.computeIfAbsent(principalKey(principalType, principalId), k -> new ArrayList<>(2))
+                        .add(slot);
+            }
+        }
+    }
+
+    /**
+     * Check the file header, take the table capacity it records and return its format version
+     */
+    private int readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(12);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < 12 || header.getInt() != MAGIC) {
+            throw new IllegalStateException("Not a token store file");
+        }
+        int version = header.getInt();
+        if (version != FORMAT_VERSION && version != LEGACY_FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported token store format version " + version);
+        }
+        int storedCapacity = header.getInt();
+        if (Integer.bitCount(storedCapacity) != 1 || channel.size() < mappedSize(storedCapacity)) {
+            throw new IllegalStateException("Token store file is truncated or has an invalid capacity");
+        }
+        capacity = storedCapacity;
+        return version;
+    }
+
+    private int home(long[] digest) {
+        return home(digest[0], mask);
+    }
+
+    private static int home(long digestPrefix, int mask) {
+        return (int) (digestPrefix ^ (digestPrefix >>> 32)) & mask;
+    }
+
+    private static int maxLoad(int capacity) {
+        return (int) (capacity * MAX_LOAD);
+    }
+
+    private static long mappedSize(int capacity) {
+        return HEADER_SIZE + (long) capacity * SLOT_SIZE;
+    }
+
+    private static void writeHeader(MappedByteBuffer target, int capacity, long nextSessionId) {
+        target.putInt(0, MAGIC);
+        target.putInt(4, FORMAT_VERSION);
+        target.putInt(8, capacity);
+        target.putLong(NEXT_SESSION_ID_OFFSET, nextSessionId);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static long principalKey(PrincipalType principalType, long principalId) {
+        return ((long) principalType.ordinal() << 62) | principalId;
+    }
+
+    private static long[] digest(String token) {
+        ByteBuffer hash = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        return new long[] {hash.getLong(), hash.getLong(), hash.getLong()};
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
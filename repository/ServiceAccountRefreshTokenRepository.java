@@ -1,12 +1,15 @@
 package com.bank.capp.repository;
 
-import com.bank.capp.models.ServiceAccount;
 import com.bank.capp.models.ServiceAccountRefreshToken;
+import com.bank.capp.models.StoredToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,13 +17,24 @@ public interface ServiceAccountRefreshTokenRepository extends JpaRepository<Serv
     
     Optional<ServiceAccountRefreshToken> findByToken(String token);
     
-    Optional<ServiceAccountRefreshToken> findByServiceAccount(ServiceAccount serviceAccount);
+    @Modifying
+    @Query("UPDATE ServiceAccountRefreshToken rt SET rt.revoked = true WHERE rt.token = :token")
+    int revokeByToken(String token);
     
     @Modifying
-    @Query("DELETE FROM ServiceAccountRefreshToken rt WHERE rt.serviceAccount = :serviceAccount")
-    void deleteByServiceAccount(ServiceAccount serviceAccount);
+    @Query("UPDATE ServiceAccountRefreshToken rt SET rt.revoked = true WHERE rt.serviceAccount.id = :serviceAccountId AND rt.revoked = false")
+    int revokeAllByServiceAccountId(Long serviceAccountId);
     
+    /**
+     * Keyset page of live tokens; served by the partial (service_account_id, id) index
+     */
+    @Query("SELECT new com.bank.capp.models.StoredToken(rt.id, com.bank.capp.models.PrincipalType.SERVICE_ACCOUNT, "
+            + "rt.serviceAccount.id, rt.expiryDate, rt.revoked, rt.createdAt) FROM ServiceAccountRefreshToken rt "
+            + "WHERE rt.serviceAccount.id = :serviceAccountId AND rt.revoked = false AND rt.expiryDate > :now AND rt.id > :afterId "
+            + "ORDER BY rt.id")
+    List<StoredToken> findLiveSessions(Long serviceAccountId, LocalDateTime now, long afterId, Pageable page);
+
     @Modifying
     @Query("DELETE FROM ServiceAccountRefreshToken rt WHERE rt.expiryDate < CURRENT_TIMESTAMP")
-    void deleteExpiredTokens();
+    int deleteExpiredTokens();
 }
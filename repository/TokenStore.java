@@ -0,0 +1,46 @@
+package com.bank.capp.repository;
+
+import com.bank.capp.models.PrincipalType;
+import com.bank.capp.models.StoredToken;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Refresh token storage shared by user and service account authentication.
+ * The backend is selected with {@code application.security.token-store.type}
+ * ({@code jpa} by default, {@code mapped} for the embedded off-heap store).
+ */
+public interface TokenStore {
+
+    /**
+     * Store a newly issued refresh token
+     */
+    void save(PrincipalType principalType, Long principalId, String token, LocalDateTime expiryDate);
+
+    /**
+     * Look up a refresh token issued to the given principal type
+     */
+    Optional<StoredToken> findByToken(PrincipalType principalType, String token);
+
+    /**
+     * Revoke a single refresh token, returning false if it is unknown
+     */
+    boolean revoke(PrincipalType principalType, String token);
+
+    /**
+     * Revoke every live refresh token of a principal
+     */
+    void revokeAll(PrincipalType principalType, Long principalId);
+
+    /**
+     * Live refresh tokens of a principal with an id above {@code afterId}, in id order, at most {@code limit}
+     */
+    List<StoredToken> findLiveSessions(PrincipalType principalType, Long principalId, long afterId, int limit);
+
+    /**
+     * Remove expired refresh tokens, returning how many were removed
+     */
+    int purgeExpired();
+}
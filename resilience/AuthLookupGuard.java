@@ -0,0 +1,231 @@
+package com.bank.capp.resilience;
+
+import com.bank.capp.exceptions.LogRateLimiter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps request authentication working while the database is slow or down.
+ *
+ * Principal lookups run on a small bounded pool with a deadline, behind a circuit breaker.
+ * Every successful lookup refreshes a last-known-good snapshot; when a lookup times out or
+ * fails, or the breaker is open, the snapshot is served instead for up to the stale window.
+ * Snapshots are evicted through the cache invalidation bus together with the regular caches,
+ * so a disabled user or revoked key is never served from them. Principals without a snapshot
+ * fail with a {@link org.springframework.dao.DataAccessException}.
+ *
+ * A lookup turned away because the local pool is full says nothing about the database, so it
+ * is served from a snapshot if there is one but never counts towards the breaker. Best-effort
+ * writes run on a pool of their own and cannot crowd out lookups.
+ */
+@Slf4j
+@Component
+public class AuthLookupGuard {
+
+    private static final Duration FAILURE_LOG_INTERVAL = Duration.ofSeconds(10);
+
+    private final CacheManager cacheManager;
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor writeExecutor;
+    private final long timeoutNanos;
+    private final LongAdder staleReads = new LongAdder();
+    private final LogRateLimiter failureLog = new LogRateLimiter(FAILURE_LOG_INTERVAL);
+
+    public AuthLookupGuard(
+            CacheManager cacheManager,
+            @Value("${application.resilience.auth-lookup.timeout:500ms}") Duration timeout,
+            @Value("${application.resilience.auth-lookup.failure-threshold:5}") int failureThreshold,
+            @Value("${application.resilience.auth-lookup.open-duration:10s}") Duration openDuration,
+            @Value("${application.resilience.auth-lookup.threads:16}") int threads,
+            @Value("${application.resilience.auth-lookup.queue-size:256}") int queueSize,
+            @Value("${application.resilience.auth-lookup.write-threads:2}") int writeThreads,
+            @Value("${application.resilience.auth-lookup.write-queue-size:1024}") int writeQueueSize
+    ) {
+        this.cacheManager = cacheManager;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        this.timeoutNanos = timeout.toNanos();
+
+        this.executor = executor("auth-lookup-", threads, queueSize);
+        this.writeExecutor = executor("auth-write-", writeThreads, writeQueueSize);
+    }
+
+    /**
+     * Run a principal lookup with a deadline, falling back to the last-known-good snapshot
+     * kept under {@code key} in the given cache
+     */
+    public <T> Optional<T> lookup(String snapshotCacheName, String key, Supplier<Optional<T>> lookup) {
+        return lookup(snapshotCacheName, key, lookup, fresh -> { });
+    }
+
+    /**
+     * Run a principal lookup as above, handing a result read from the database, never one
+     * served from a snapshot, to {@code onFresh}; callers cache only what {@code onFresh} sees
+     */
+    public <T> Optional<T> lookup(String snapshotCacheName, String key, Supplier<Optional<T>> lookup,
+                                  Consumer<? super T> onFresh) {
+        Cache snapshots = cacheManager.getCache(snapshotCacheName);
+        if (!circuitBreaker.tryAcquire()) {
+            return stale(snapshots, key, null);
+        }
+
+        Optional<T> result;
+        try {
+            result = call(lookup);
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.release();
+            return stale(snapshots, key, new DataAccessResourceFailureException("Authentication lookups saturated", e));
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            return stale(snapshots, key, e);
+        }
+        circuitBreaker.onSuccess();
+
+        if (snapshots != null) {
+            if (result.isPresent()) {
+                snapshots.put(key, result.get());
+            } else {
+                snapshots.evict(key);
+            }
+        }
+        result.ifPresent(onFresh);
+        return result;
+    }
+
+    /**
+     * Run a write that authentication does not depend on, such as a last-used timestamp.
+     * Skipped while the database is degraded and never waited for; failures count towards the breaker.
+     */
+    public void bestEffort(Runnable write) {
+        if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            return;
+        }
+        try {
+            writeExecutor.execute(() -> {
+                try {
+                    write.run();
+                    circuitBreaker.onSuccess();
+                } catch (RuntimeException e) {
+                    circuitBreaker.onFailure();
+                    logFailure("Best-effort write failed: {}", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logFailure("Best-effort write dropped: {}", e);
+        }
+    }
+
+    /**
+     * Whether lookups currently go to the database
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    public int getConsecutiveFailures() {
+        return circuitBreaker.getConsecutiveFailures();
+    }
+
+    public long getStaleReads() {
+        return staleReads.sum();
+    }
+
+    public int getActiveLookups() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedLookups() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        writeExecutor.shutdownNow();
+    }
+
+    private static ThreadPoolExecutor executor(String threadPrefix, int threads, int queueSize) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadPrefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @throws RejectedExecutionException when the pool is full and the lookup never started
+     */
+    private <T> Optional<T> call(Supplier<Optional<T>> lookup) {
+        Future<Optional<T>> future = executor.submit(lookup::get);
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // The JDBC call may ignore the interrupt; the bounded pool caps how many can pile up
+            future.cancel(true);
+            throw new QueryTimeoutException("Authentication lookup timed out", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new DataAccessResourceFailureException("Authentication lookup failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new DataAccessResourceFailureException("Interrupted during authentication lookup", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Optional<T> stale(Cache snapshots, String key, RuntimeException failure) {
+        Cache.ValueWrapper snapshot = snapshots != null ? snapshots.get(key) : null;
+        if (snapshot != null && snapshot.get() != null) {
+            staleReads.increment();
+            if (failure != null) {
+                logFailure("Authentication lookup failed, serving last-known-good snapshot: {}", failure);
+            }
+            return Optional.of((T) snapshot.get());
+        }
+
+        if (failure != null) {
+            logFailure("Authentication lookup failed with no snapshot to fall back on: {}", failure);
+            throw failure;
+        }
+        throw new DataAccessResourceFailureException("Authentication store unavailable");
+    }
+
+    private void logFailure(String message, RuntimeException e) {
+        long suppressed = failureLog.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn(message + " ({} more since last report)", e.getMessage(), suppressed);
+        }
+    }
+}
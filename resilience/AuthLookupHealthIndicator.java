@@ -0,0 +1,36 @@
+package com.bank.capp.resilience;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports {@code DEGRADED} while authentication is served from snapshots.
+ *
+ * A degraded node still authenticates known principals, so it should stay in rotation:
+ * list the status between UP and DOWN in {@code management.endpoint.health.status.order}
+ * and map it to 200 in {@code management.endpoint.health.status.http-mapping}.
+ */
+@Component("authLookup")
+@RequiredArgsConstructor
+public class AuthLookupHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED",
+            "Database lookups failing; authenticating from last-known-good snapshots");
+
+    private final AuthLookupGuard authLookupGuard;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = authLookupGuard.isAvailable() ? Health.up() : Health.status(DEGRADED);
+        return builder
+                .withDetail("circuitBreaker", authLookupGuard.getState())
+                .withDetail("consecutiveFailures", authLookupGuard.getConsecutiveFailures())
+                .withDetail("staleReads", authLookupGuard.getStaleReads())
+                .withDetail("activeLookups", authLookupGuard.getActiveLookups())
+                .withDetail("queuedLookups", authLookupGuard.getQueuedLookups())
+                .build();
+    }
+}
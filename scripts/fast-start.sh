@@ -0,0 +1,46 @@
+#!/usr/bin/env sh
+# Fast-start launcher for auth nodes.
+#
+#   fast-start.sh train   extract the jar and record an AppCDS archive from a training run
+#   fast-start.sh run     start with the AOT-generated context and the CDS archive
+#   fast-start.sh native  build a GraalVM native image instead
+#
+# The jar must be built with Spring AOT processing (spring-boot-maven-plugin process-aot,
+# as done by the spring-boot-starter-parent "native" profile). Startup progress and the
+# time to the first authenticated request are logged by StartupTimingListener and exposed
+# as the application.first.authenticated.request metric.
+set -eu
+
+APP_JAR="${APP_JAR:-target/app.jar}"
+WORK_DIR="${WORK_DIR:-target/fast-start}"
+JAR_NAME="$(basename "$APP_JAR")"
+ARCHIVE="$WORK_DIR/application.jsa"
+
+case "${1:-run}" in
+  train)
+    rm -rf "$WORK_DIR"
+    java -Djarmode=tools -jar "$APP_JAR" extract --destination "$WORK_DIR"
+    # Refresh the context (loading every class startup needs) and exit, dumping the archive
+    java -XX:ArchiveClassesAtExit="$ARCHIVE" \
+         -Dspring.aot.enabled=true \
+         -Dspring.context.exit=onRefresh \
+         -jar "$WORK_DIR/$JAR_NAME"
+    ;;
+  run)
+    if [ ! -f "$ARCHIVE" ]; then
+      echo "No CDS archive at $ARCHIVE, run '$0 train' first" >&2
+      exit 1
+    fi
+    exec java -XX:SharedArchiveFile="$ARCHIVE" \
+              -Dspring.aot.enabled=true \
+              ${JAVA_OPTS:-} \
+              -jar "$WORK_DIR/$JAR_NAME"
+    ;;
+  native)
+    exec mvn -Pnative native:compile -DskipTests
+    ;;
+  *)
+    echo "Usage: $0 {train|run|native}" >&2
+    exit 2
+    ;;
+esac
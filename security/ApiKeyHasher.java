@@ -0,0 +1,57 @@
+package com.bank.capp.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Hashes API keys for storage and lookup.
+ *
+ * API keys are 256 bit random values, so an unsalted SHA-256 digest is safe to
+ * store and, unlike bcrypt, is deterministic: the hash can be used to look up the
+ * owning service account and as a cache key. Hashes written by the earlier bcrypt
+ * scheme are still accepted by {@link #matches}; a successful service login replaces
+ * them with the SHA-256 digest (see {@link #isLegacy}). Until then such a key only
+ * works for service login, since the X-API-Key lookup by hash cannot find it.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiKeyHasher {
+
+    private static final String LEGACY_BCRYPT_PREFIX = "$2";
+
+    private final PasswordEncoder passwordEncoder;
+
+    /**
+     * Hash an API key for storage or lookup
+     */
+    public String hash(String apiKey) {
+        return Digests.sha256Hex(apiKey);
+    }
+
+    /**
+     * Whether a stored hash was written by the bcrypt scheme and should be replaced by {@link #hash}
+     */
+    public boolean isLegacy(String storedHash) {
+        return storedHash != null && storedHash.startsWith(LEGACY_BCRYPT_PREFIX);
+    }
+
+    /**
+     * Check an API key against a stored hash in constant time
+     */
+    public boolean matches(String apiKey, String storedHash) {
+        if (apiKey == null || storedHash == null) {
+            return false;
+        }
+        if (isLegacy(storedHash)) {
+            return passwordEncoder.matches(apiKey, storedHash);
+        }
+        return MessageDigest.isEqual(
+                hash(apiKey).getBytes(StandardCharsets.US_ASCII),
+                storedHash.getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package com.bank.capp.security;
+
+import com.bank.capp.models.PrincipalType;
+import com.bank.capp.models.ServiceAccount;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Small immutable principal placed in the SecurityContext by both authentication filters.
+ * Keeps managed entities out of the request context and shares authority lists.
+ * {@code grants} holds role bits for users and scope bits for service accounts.
+ */
+@Getter
+public final class AuthenticatedPrincipal implements Principal {
+
+    private final PrincipalType type;
+    private final Long id;
+    private final String name;
+    private final List<GrantedAuthority> authorities;
+    private final long grants;
+
+    private AuthenticatedPrincipal(
+            PrincipalType type,
+            Long id,
+            String name,
+            List<GrantedAuthority> authorities,
+            long grants
+    ) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.authorities = authorities;
+        this.grants = grants;
+    }
+
+    public static AuthenticatedPrincipal user(Long id, String username, List<GrantedAuthority> authorities) {
+        return new AuthenticatedPrincipal(PrincipalType.USER, id, username, authorities,
+                Authorities.grantsOf(authorities));
+    }
+
+    public static AuthenticatedPrincipal serviceAccount(ServiceAccount serviceAccount) {
+        return serviceAccount(serviceAccount.getId(), serviceAccount.getServiceName(), serviceAccount.getScopes());
+    }
+
+    /**
+     * Service account principal with the scope mask of its account or access token
+     */
+    public static AuthenticatedPrincipal serviceAccount(Long id, String serviceName, long scopes) {
+        return new AuthenticatedPrincipal(PrincipalType.SERVICE_ACCOUNT, id, serviceName,
+                Authorities.SERVICE_AUTHORITIES, scopes);
+    }
+
+    public boolean isServiceAccount() {
+        return type == PrincipalType.SERVICE_ACCOUNT;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AuthenticatedPrincipal other)) {
+            return false;
+        }
+        return type == other.type && Objects.equals(name, other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * type.hashCode() + Objects.hashCode(name);
+    }
+
+    @Override
+    public String toString() {
+        return type + ":" + name;
+    }
+}
@@ -0,0 +1,73 @@
+package com.bank.capp.security;
+
+import com.bank.capp.constants.SecurityConstants;
+import com.bank.capp.models.Role;
+import com.bank.capp.models.Scope;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared, immutable authority instances so principals never allocate them per request
+ */
+public final class Authorities {
+
+    public static final GrantedAuthority USER = new SimpleGrantedAuthority(SecurityConstants.ROLE_USER);
+    public static final GrantedAuthority ADMIN = new SimpleGrantedAuthority(SecurityConstants.ROLE_ADMIN);
+    public static final GrantedAuthority OPERATOR = new SimpleGrantedAuthority(SecurityConstants.ROLE_OPERATOR);
+    public static final GrantedAuthority VIEWER = new SimpleGrantedAuthority(SecurityConstants.ROLE_VIEWER);
+    public static final GrantedAuthority SERVICE = new SimpleGrantedAuthority(SecurityConstants.ROLE_SERVICE);
+
+    public static final List<GrantedAuthority> SERVICE_AUTHORITIES = List.of(SERVICE);
+
+    private static final Map<Role, List<GrantedAuthority>> BY_ROLE = new EnumMap<>(Role.class);
+
+    static {
+        List<GrantedAuthority> known = List.of(USER, ADMIN, OPERATOR, VIEWER, SERVICE);
+        for (Role role : Role.values()) {
+            String name = "ROLE_" + role.name();
+            GrantedAuthority authority = known.stream()
+                    .filter(candidate -> candidate.getAuthority().equals(name))
+                    .findFirst()
+                    .orElseGet(() -> new SimpleGrantedAuthority(name));
+            BY_ROLE.put(role, List.of(authority));
+        }
+    }
+
+    /**
+     * Authorities granted to a user with the given role
+     */
+    public static List<GrantedAuthority> forRole(Role role) {
+        return BY_ROLE.get(role);
+    }
+
+    /**
+     * Grant bit of a role, placed above the scope bits so both fit one mask
+     */
+    public static long grantOf(Role role) {
+        return 1L << (Scope.MAX_BITS + role.ordinal());
+    }
+
+    /**
+     * Role grant bits of the given authorities, computed once per principal
+     */
+    public static long grantsOf(Collection<? extends GrantedAuthority> authorities) {
+        long grants = 0;
+        for (GrantedAuthority authority : authorities) {
+            for (Map.Entry<Role, List<GrantedAuthority>> role : BY_ROLE.entrySet()) {
+                if (role.getValue().get(0).getAuthority().equals(authority.getAuthority())) {
+                    grants |= grantOf(role.getKey());
+                }
+            }
+        }
+        return grants;
+    }
+
+    private Authorities() {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,32 @@
+package com.bank.capp.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Unsalted digests of high-entropy secrets such as API keys and refresh tokens,
+ * used where a deterministic, non-reversible lookup key is needed
+ */
+public final class Digests {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    /**
+     * Lower-case hex SHA-256 digest of the UTF-8 bytes of a value
+     */
+    public static String sha256Hex(String value) {
+        return HexFormat.of().formatHex(SHA_256.get().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Digests() {
+        // Private constructor to prevent instantiation
+    }
+}
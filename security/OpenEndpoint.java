@@ -0,0 +1,17 @@
+package com.bank.capp.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller, or one of its methods, as reachable by anyone the security filter chain
+ * lets through. Every other API handler must carry {@link RequiresScope}; startup fails otherwise.
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OpenEndpoint {
+}
@@ -0,0 +1,25 @@
+package com.bank.capp.security;
+
+import com.bank.capp.models.Role;
+import com.bank.capp.models.Scope;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Access rule of a controller method, compiled into {@link ScopeDecisionTable} at startup.
+ * Users need any of the {@link #roles}; service accounts need all of the scopes in
+ * {@link #value}, and are refused if none are listed.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequiresScope {
+
+    Scope[] value() default {};
+
+    Role[] roles() default {};
+}
@@ -0,0 +1,48 @@
+package com.bank.capp.security;
+
+import com.bank.capp.constants.ApiConstants;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Enforces the compiled {@link RequiresScope} rules before an API handler runs,
+ * denying handlers without a rule
+ */
+@Component
+@RequiredArgsConstructor
+public class ScopeAuthorizationInterceptor implements HandlerInterceptor {
+
+    private final ScopeDecisionTable decisionTable;
+
+    @Override
+    public boolean preHandle(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull Object handler
+    ) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        ScopeDecisionTable.Rule rule = decisionTable.ruleFor(handlerMethod.getMethod());
+        if (rule != null && rule.open()) {
+            return true;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (rule == null
+                || authentication == null
+                || !(authentication.getPrincipal() instanceof AuthenticatedPrincipal principal)
+                || !rule.permits(principal)) {
+            throw new AccessDeniedException(ApiConstants.ACCESS_DENIED);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,104 @@
+package com.bank.capp.security;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.models.Role;
+import com.bank.capp.models.Scope;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link RequiresScope} rules of every handler method, compiled once the context is refreshed.
+ *
+ * Each rule is a pair of masks over the principal's grants: role bits of which any one
+ * suffices and scope bits which must all be held. A decision is a map lookup and two mask
+ * tests; no expression is parsed or evaluated per request. Lazy controllers are covered
+ * without being instantiated, since only their handler methods are read.
+ *
+ * API handlers are denied unless they have a rule: startup fails if one carries neither
+ * {@link RequiresScope} nor {@link OpenEndpoint}.
+ */
+@Slf4j
+@Component
+public class ScopeDecisionTable {
+
+    private volatile Map<Method, Rule> rules = Map.of();
+
+    @EventListener
+    public void onContextRefreshed(ContextRefreshedEvent event) {
+        Map<Method, Rule> compiled = new HashMap<>();
+        List<String> unguarded = new ArrayList<>();
+        event.getApplicationContext()
+                .getBeansOfType(RequestMappingHandlerMapping.class)
+                .values()
+                .forEach(mapping -> mapping.getHandlerMethods().forEach((info, handler) -> {
+                    Rule rule = compile(handler);
+                    if (rule != null) {
+                        compiled.put(handler.getMethod(), rule);
+                    } else if (isApi(info)) {
+                        unguarded.add(handler.getShortLogMessage());
+                    }
+                }));
+        if (!unguarded.isEmpty()) {
+            throw new IllegalStateException("API handlers without @RequiresScope or @OpenEndpoint: " + unguarded);
+        }
+        rules = Map.copyOf(compiled);
+        log.info("Compiled {} endpoint access rules", compiled.size());
+    }
+
+    /**
+     * Rule of a handler method, or null if it has none and must be denied
+     */
+    public Rule ruleFor(Method method) {
+        return rules.get(method);
+    }
+
+    private static Rule compile(HandlerMethod handler) {
+        RequiresScope annotation = AnnotatedElementUtils.findMergedAnnotation(handler.getMethod(), RequiresScope.class);
+        if (annotation == null) {
+            return handler.hasMethodAnnotation(OpenEndpoint.class)
+                    || AnnotatedElementUtils.hasAnnotation(handler.getBeanType(), OpenEndpoint.class)
+                    ? Rule.OPEN
+                    : null;
+        }
+        long roles = 0;
+        for (Role role : annotation.roles()) {
+            roles |= Authorities.grantOf(role);
+        }
+        return new Rule(roles, Scope.mask(Arrays.asList(annotation.value())), false);
+    }
+
+    private static boolean isApi(RequestMappingInfo info) {
+        return info.getPatternValues().stream()
+                .anyMatch(pattern -> pattern.equals(ApiConstants.API_BASE_PATH)
+                        || pattern.startsWith(ApiConstants.API_BASE_PATH + "/"));
+    }
+
+    public record Rule(long anyRole, long allScopes, boolean open) {
+
+        static final Rule OPEN = new Rule(0, 0, true);
+
+        public boolean permits(AuthenticatedPrincipal principal) {
+            if (open) {
+                return true;
+            }
+            long grants = principal.getGrants();
+            if (principal.isServiceAccount()) {
+                return allScopes != 0 && (grants & allScopes) == allScopes;
+            }
+            return (grants & anyRole) != 0;
+        }
+    }
+}
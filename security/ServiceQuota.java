@@ -0,0 +1,71 @@
+package com.bank.capp.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request quota of one service account on this node, enforced with GCRA.
+ *
+ * The whole state is the theoretical arrival time of the next request, advanced
+ * with a single compare-and-set, so admitting a request takes no lock and allocates
+ * nothing. Instances are immutable apart from that counter; a quota change replaces
+ * the instance.
+ */
+public final class ServiceQuota {
+
+    static final ServiceQuota UNLIMITED = new ServiceQuota(0, 0, 0);
+
+    private final int limit;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param limit                 advertised requests per second
+     * @param emissionIntervalNanos time for one request to become available again on this node
+     * @param burst                 requests admitted back to back on this node
+     */
+    ServiceQuota(int limit, long emissionIntervalNanos, int burst) {
+        this.limit = limit;
+        this.emissionIntervalNanos = emissionIntervalNanos;
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(burst - 1, 0);
+    }
+
+    public boolean isUnlimited() {
+        return emissionIntervalNanos == 0;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Try to take one request
+     *
+     * @return requests left in the burst when admitted (zero or more), otherwise the
+     *         negated nanoseconds until a request will be admitted again
+     */
+    public long tryAcquire(long nowNanos) {
+        if (isUnlimited()) {
+            return Long.MAX_VALUE;
+        }
+        while (true) {
+            long current = theoreticalArrival.get();
+            long arrival = Math.max(current, nowNanos);
+            long allowAt = arrival - burstToleranceNanos;
+            if (allowAt > nowNanos) {
+                return -(allowAt - nowNanos);
+            }
+            long next = arrival + emissionIntervalNanos;
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return (nowNanos + burstToleranceNanos + emissionIntervalNanos - next) / emissionIntervalNanos;
+            }
+        }
+    }
+
+    /**
+     * Nanoseconds until the full burst is available again
+     */
+    public long nanosUntilReset(long nowNanos) {
+        return Math.max(theoreticalArrival.get() - nowNanos, 0);
+    }
+}
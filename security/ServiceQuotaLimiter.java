@@ -0,0 +1,169 @@
+package com.bank.capp.security;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.constants.SecurityConstants;
+import com.bank.capp.datasource.ReplicaLagGuard;
+import com.bank.capp.exceptions.AuthFailure;
+import com.bank.capp.exceptions.ErrorResponses;
+import com.bank.capp.exceptions.TooManyAttemptsException;
+import com.bank.capp.models.PrincipalType;
+import com.bank.capp.models.ServiceAccount;
+import com.bank.capp.repository.ServiceAccountRepository;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces per service account request quotas in the authentication filters.
+ *
+ * Quotas live in the serviceQuotas cache keyed by account id, built from the account
+ * the API key filter already holds or, for service JWTs, read once per node. Admin
+ * changes, rotations and revocations evict the entry through the cache invalidation
+ * bus, so new limits apply on every node without a restart. Each node enforces
+ * 1/nodes of the quota, which approximates a shared limit while the load balancer
+ * spreads a service's calls evenly.
+ */
+@Component
+public class ServiceQuotaLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final CacheManager cacheManager;
+    private final ServiceAccountRepository serviceAccountRepository;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final ErrorResponses errorResponses;
+    private final boolean enabled;
+    private final int defaultRate;
+    private final int defaultBurst;
+    private final int nodes;
+
+    public ServiceQuotaLimiter(
+            CacheManager cacheManager,
+            ServiceAccountRepository serviceAccountRepository,
+            ReplicaLagGuard replicaLagGuard,
+            ErrorResponses errorResponses,
+            @Value("${application.security.service-quota.enabled:true}") boolean enabled,
+            @Value("${application.security.service-quota.default-rate:0}") int defaultRate,
+            @Value("${application.security.service-quota.default-burst:0}") int defaultBurst,
+            @Value("${application.security.service-quota.nodes:1}") int nodes
+    ) {
+        this.cacheManager = cacheManager;
+        this.serviceAccountRepository = serviceAccountRepository;
+        this.replicaLagGuard = replicaLagGuard;
+        this.errorResponses = errorResponses;
+        this.enabled = enabled;
+        this.defaultRate = defaultRate;
+        this.defaultBurst = defaultBurst;
+        this.nodes = Math.max(nodes, 1);
+    }
+
+    /**
+     * Quota of an account authenticated by API key
+     */
+    public ServiceQuota quotaFor(ServiceAccount account) {
+        Cache cache = cacheManager.getCache(ApiConstants.SERVICE_QUOTA_CACHE);
+        if (cache == null) {
+            return newQuota(account);
+        }
+        ServiceQuota quota = cache.get(cacheKey(account.getId()), () -> newQuota(account));
+        if (quota == null) {
+            // Cached as inactive by a service JWT before the account was reactivated
+            quota = newQuota(account);
+            cache.put(cacheKey(account.getId()), quota);
+        }
+        return quota;
+    }
+
+    /**
+     * Quota of an account known only from a service JWT
+     *
+     * @return the quota, or null if the account no longer exists or is inactive
+     */
+    public ServiceQuota quotaFor(Long serviceAccountId) {
+        Cache cache = cacheManager.getCache(ApiConstants.SERVICE_QUOTA_CACHE);
+        if (cache == null) {
+            return loadQuota(serviceAccountId);
+        }
+        return cache.get(cacheKey(serviceAccountId), () -> loadQuota(serviceAccountId));
+    }
+
+    /**
+     * Take one request from the quota and set the rate limit headers.
+     * A rejected request is answered with 429 and must not continue down the filter chain.
+     *
+     * @return whether the request was admitted
+     */
+    public boolean admit(ServiceQuota quota, HttpServletResponse response) throws IOException {
+        if (quota.isUnlimited()) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        long result = quota.tryAcquire(now);
+        response.setHeader(SecurityConstants.RATE_LIMIT_LIMIT_HEADER, Integer.toString(quota.getLimit()));
+        response.setHeader(SecurityConstants.RATE_LIMIT_REMAINING_HEADER, Long.toString(Math.max(result, 0)));
+        response.setHeader(SecurityConstants.RATE_LIMIT_RESET_HEADER,
+                Long.toString(toSeconds(quota.nanosUntilReset(now))));
+        if (result >= 0) {
+            return true;
+        }
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(toSeconds(-result), 1)));
+        errorResponses.write(AuthFailure.QUOTA_EXCEEDED, response);
+        return false;
+    }
+
+    /**
+     * Take one request from the quota for a call outside the servlet filter chain
+     *
+     * @throws TooManyAttemptsException when the quota is exhausted
+     */
+    public void acquire(ServiceQuota quota) {
+        long result = quota.tryAcquire(System.nanoTime());
+        if (result < 0) {
+            throw new TooManyAttemptsException(AuthFailure.QUOTA_EXCEEDED, Math.max(toSeconds(-result), 1));
+        }
+    }
+
+    private ServiceQuota loadQuota(Long serviceAccountId) {
+        return replicaLagGuard.read(
+                        ReplicaLagGuard.principalKey(PrincipalType.SERVICE_ACCOUNT, serviceAccountId),
+                        () -> serviceAccountRepository.findById(serviceAccountId))
+                .filter(ServiceAccount::isActive)
+                .map(this::newQuota)
+                .orElse(null);
+    }
+
+    private ServiceQuota newQuota(ServiceAccount account) {
+        if (!enabled) {
+            return ServiceQuota.UNLIMITED;
+        }
+
+        boolean custom = account.getRateLimitPerSecond() != null;
+        int rate = custom ? account.getRateLimitPerSecond() : defaultRate;
+        if (rate <= 0) {
+            return ServiceQuota.UNLIMITED;
+        }
+        Integer configuredBurst = custom ? account.getRateLimitBurst() : Integer.valueOf(defaultBurst);
+        int burst = configuredBurst != null && configuredBurst > 0 ? configuredBurst : rate;
+
+        // Each node admits its share of the quota
+        long emissionIntervalNanos = NANOS_PER_SECOND * nodes / rate;
+        int nodeBurst = Math.max((burst + nodes - 1) / nodes, 1);
+        return new ServiceQuota(rate, emissionIntervalNanos, nodeBurst);
+    }
+
+    private static String cacheKey(Long serviceAccountId) {
+        return String.valueOf(serviceAccountId);
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+}
@@ -0,0 +1,135 @@
+package com.bank.capp.security;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free rate limiter for an unbounded key space.
+ *
+ * Each key hashes to one cell per row of a count-min style sketch. A cell holds the
+ * GCRA theoretical arrival time shared by every key that maps to it, so collisions
+ * can only make a key look busier than it is. A key is admitted when its least loaded
+ * cell has room, which keeps false rejections rare for the long tail while memory
+ * stays constant no matter how many distinct keys are sprayed at it.
+ *
+ * Every row hashes the key's bytes with its own secret 64-bit seed, drawn at startup, so
+ * the rows are independent and keys that collide in one row cannot be crafted to collide
+ * in all of them and throttle someone else.
+ */
+public class StripedRateLimiter {
+
+    private static final int MAX_DEPTH = 8;
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final long[] rowSeeds;
+    private final AtomicLongArray cells;
+    private final int depth;
+    private final int widthBits;
+    private final int widthMask;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final long origin = System.nanoTime();
+
+    /**
+     * @param burst        attempts allowed back to back before throttling starts
+     * @param refillPeriod time for one attempt to become available again
+     * @param width        cells per row, rounded up to a power of two
+     * @param depth        number of rows (independent hashes) per key
+     */
+    public StripedRateLimiter(int burst, Duration refillPeriod, int width, int depth) {
+        if (burst < 1 || depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Invalid rate limiter configuration");
+        }
+        int roundedWidth = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.widthBits = Integer.numberOfTrailingZeros(roundedWidth);
+        this.widthMask = roundedWidth - 1;
+        this.depth = depth;
+        SecureRandom random = new SecureRandom();
+        this.rowSeeds = new long[depth];
+        for (int row = 0; row < depth; row++) {
+            rowSeeds[row] = random.nextLong();
+        }
+        this.cells = new AtomicLongArray(roundedWidth * depth);
+        this.emissionIntervalNanos = refillPeriod.toNanos();
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+    }
+
+    /**
+     * Try to take one attempt for the key
+     *
+     * @return 0 when admitted, otherwise nanoseconds until the key may retry
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime() - origin;
+        int[] indexes = indexes(key);
+
+        long estimate = Long.MAX_VALUE;
+        for (int index : indexes) {
+            estimate = Math.min(estimate, cells.get(index));
+        }
+
+        long allowAt = estimate - burstToleranceNanos;
+        if (allowAt > now) {
+            return allowAt - now;
+        }
+
+        // Conservative update: only raise cells that are behind the key's new arrival time
+        long target = Math.max(estimate, now) + emissionIntervalNanos;
+        for (int index : indexes) {
+            long current;
+            do {
+                current = cells.get(index);
+            } while (current < target && !cells.compareAndSet(index, current, target));
+        }
+        return 0;
+    }
+
+    private int[] indexes(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int[] indexes = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            indexes[row] = (row << widthBits) | ((int) hash(bytes, rowSeeds[row]) & widthMask);
+        }
+        return indexes;
+    }
+
+    /**
+     * Seeded 64-bit MurmurHash3-style hash of the key bytes
+     */
+    private static long hash(byte[] bytes, long seed) {
+        long h = seed ^ (bytes.length * C1);
+        int i = 0;
+        for (; i + Long.BYTES <= bytes.length; i += Long.BYTES) {
+            h ^= mixKey((long) LONG_LE.get(bytes, i));
+            h = Long.rotateLeft(h, 27) * 5 + 0x52DCE729;
+        }
+        long tail = 0;
+        for (int shift = 0; i < bytes.length; i++, shift += Byte.SIZE) {
+            tail |= (bytes[i] & 0xFFL) << shift;
+        }
+        h ^= mixKey(tail);
+        return fmix64(h);
+    }
+
+    private static long mixKey(long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        return k * C2;
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
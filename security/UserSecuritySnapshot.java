@@ -0,0 +1,59 @@
+package com.bank.capp.security;
+
+import com.bank.capp.models.Role;
+import com.bank.capp.models.User;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable security view of a user, safe to share across threads from the user cache.
+ * Holds only what authentication needs, never a managed JPA entity. Deliberately not a
+ * CredentialsContainer, so ProviderManager cannot erase the password hash of a cached instance.
+ */
+@Getter
+public final class UserSecuritySnapshot implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final Role role;
+    private final boolean enabled;
+    private final boolean accountNonExpired;
+    private final boolean accountNonLocked;
+    private final boolean credentialsNonExpired;
+    private final List<GrantedAuthority> authorities;
+    private final AuthenticatedPrincipal principal;
+
+    private UserSecuritySnapshot(User user) {
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.email = user.getEmail();
+        this.password = user.getPassword();
+        this.role = user.getRole();
+        this.enabled = user.isEnabled();
+        this.accountNonExpired = user.isAccountNonExpired();
+        this.accountNonLocked = user.isAccountNonLocked();
+        this.credentialsNonExpired = user.isCredentialsNonExpired();
+        this.authorities = Authorities.forRole(role);
+        this.principal = AuthenticatedPrincipal.user(id, username, authorities);
+    }
+
+    public static UserSecuritySnapshot from(User user) {
+        return new UserSecuritySnapshot(user);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSecuritySnapshot[id=" + id + ", username=" + username + ", role=" + role + "]";
+    }
+}
@@ -0,0 +1,129 @@
+package com.bank.capp.services;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.models.KeysetPage;
+import com.bank.capp.models.PrincipalType;
+import com.bank.capp.models.ServiceAccount;
+import com.bank.capp.models.SessionResponse;
+import com.bank.capp.models.StoredToken;
+import com.bank.capp.repository.ServiceAccountRepository;
+import com.bank.capp.repository.TokenStore;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-paginated and streaming listings for the admin API.
+ *
+ * Pages continue after the last id of the previous page and fetch one row more than asked
+ * to tell whether another page follows, so neither an offset scan nor a count query runs.
+ * The export reads through a server-side cursor inside one read-only transaction and
+ * detaches each account once handed over, so memory stays flat however many there are.
+ */
+@Service
+public class AdminListingService {
+
+    private final ServiceAccountRepository serviceAccountRepository;
+    private final TokenStore tokenStore;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AdminListingService(
+            ServiceAccountRepository serviceAccountRepository,
+            TokenStore tokenStore,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.serviceAccountRepository = serviceAccountRepository;
+        this.tokenStore = tokenStore;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Service accounts with an id above {@code after}, optionally filtered by status and last-used range
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ServiceAccount> listServiceAccounts(
+            long after,
+            int limit,
+            Boolean active,
+            LocalDateTime lastUsedFrom,
+            LocalDateTime lastUsedTo
+    ) {
+        int size = pageSize(limit);
+        List<ServiceAccount> rows = serviceAccountRepository.findPage(
+                after, active, lastUsedFrom, lastUsedTo, PageRequest.ofSize(size + 1));
+        return page(rows, size, ServiceAccount::getId);
+    }
+
+    /**
+     * Live refresh sessions of a principal with an id above {@code after}
+     */
+    public KeysetPage<SessionResponse> listSessions(PrincipalType principalType, Long principalId, long after, int limit) {
+        int size = pageSize(limit);
+        List<SessionResponse> rows = tokenStore.findLiveSessions(principalType, principalId, after, size + 1)
+                .stream()
+                .map(AdminListingService::toSessionResponse)
+                .toList();
+        return page(rows, size, SessionResponse::getId);
+    }
+
+    /**
+     * Hand every matching account to the consumer in id order, returning how many were exported
+     */
+    public int exportServiceAccounts(
+            Boolean active,
+            LocalDateTime lastUsedFrom,
+            LocalDateTime lastUsedTo,
+            Consumer<ServiceAccount> accounts
+    ) {
+        return readOnlyTransaction.execute(status -> {
+            int exported = 0;
+            try (Stream<ServiceAccount> stream = serviceAccountRepository.streamFiltered(active, lastUsedFrom, lastUsedTo)) {
+                Iterator<ServiceAccount> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    ServiceAccount account = iterator.next();
+                    accounts.accept(account);
+                    entityManager.detach(account);
+                    exported++;
+                }
+            }
+            return exported;
+        });
+    }
+
+    private static SessionResponse toSessionResponse(StoredToken token) {
+        return SessionResponse.builder()
+                .id(token.getId())
+                .createdAt(token.getCreatedAt())
+                .expiresAt(token.getExpiryDate())
+                .build();
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, ApiConstants.MAX_PAGE_SIZE));
+    }
+
+    private static <T> KeysetPage<T> page(List<T> rows, int size, Function<T, Long> id) {
+        if (rows.size() <= size) {
+            return KeysetPage.<T>builder().items(rows).build();
+        }
+        List<T> items = rows.subList(0, size);
+        return KeysetPage.<T>builder()
+                .items(items)
+                .nextAfter(id.apply(items.get(size - 1)))
+                .build();
+    }
+}
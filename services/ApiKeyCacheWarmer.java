@@ -0,0 +1,215 @@
+package com.bank.capp.services;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.datasource.ReplicaLagGuard;
+import com.bank.capp.models.ServiceAccount;
+import com.bank.capp.repository.ServiceAccountRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Loads every active service account into the API key cache before the node reports ready,
+ * then keeps the cached accounts current from the {@code updated_at} change marker.
+ *
+ * The delta refresh only re-puts changed rows, so unchanged accounts would expire after the
+ * cache TTL and the cache would go cold again. Every {@code full-refresh-interval}, which must be
+ * shorter than the TTL, the refresh also re-puts all active accounts.
+ *
+ * Runs as an ApplicationRunner, so readiness only turns to ACCEPTING_TRAFFIC once warm-up is
+ * done; if the database is unavailable the node starts cold and the next refresh retries.
+ * Loads and refreshes read the primary, so a revocation the bus already evicted is never put
+ * back from a lagging replica, and refreshes re-read with an overlap to cover commit delays and
+ * clock skew.
+ * Rotated-away key hashes are not visible here and stay with the cache invalidation bus.
+ */
+@Slf4j
+@Component
+public class ApiKeyCacheWarmer implements ApplicationRunner {
+
+    private static final List<String> CACHES = List.of(ApiConstants.API_KEY_CACHE, ApiConstants.API_KEY_SNAPSHOT_CACHE);
+
+    private final ServiceAccountRepository serviceAccountRepository;
+    private final CacheManager cacheManager;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Duration overlap;
+    private final Duration fullRefreshInterval;
+    private final AtomicInteger warmedEntries = new AtomicInteger();
+    private final AtomicLong warmupMillis = new AtomicLong();
+    private volatile LocalDateTime lastSync;
+    private volatile LocalDateTime lastFullSync;
+
+    public ApiKeyCacheWarmer(
+            ServiceAccountRepository serviceAccountRepository,
+            CacheManager cacheManager,
+            ReplicaLagGuard replicaLagGuard,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry,
+            @Value("${application.cache.api-keys.warmup.enabled:true}") boolean enabled,
+            @Value("${application.cache.api-keys.warmup.overlap:1m}") Duration overlap,
+            @Value("${application.cache.api-keys.warmup.full-refresh-interval:5m}") Duration fullRefreshInterval,
+            @Value("${application.cache.api-keys.ttl:10m}") Duration cacheTtl
+    ) {
+        if (enabled && fullRefreshInterval.compareTo(cacheTtl) >= 0) {
+            throw new IllegalStateException("application.cache.api-keys.warmup.full-refresh-interval ("
+                    + fullRefreshInterval + ") must be shorter than application.cache.api-keys.ttl (" + cacheTtl
+                    + ") or warmed entries expire before they are re-put");
+        }
+        this.serviceAccountRepository = serviceAccountRepository;
+        this.cacheManager = cacheManager;
+        this.replicaLagGuard = replicaLagGuard;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.overlap = overlap;
+        this.fullRefreshInterval = fullRefreshInterval;
+
+        TimeGauge.builder("application.cache.warmup", warmupMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Duration of the last startup cache warm-up")
+                .tag("cache", ApiConstants.API_KEY_CACHE)
+                .register(registry);
+        Gauge.builder("application.cache.warmup.entries", warmedEntries, AtomicInteger::get)
+                .description("Entries loaded by the last startup cache warm-up")
+                .tag("cache", ApiConstants.API_KEY_CACHE)
+                .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Re-read accounts changed since the last sync on the primary, then all active accounts once the
+     * full refresh interval has passed; retries the warm-up if it failed at startup
+     */
+    @Scheduled(
+            initialDelayString = "${application.cache.api-keys.warmup.refresh-interval-ms:30000}",
+            fixedDelayString = "${application.cache.api-keys.warmup.refresh-interval-ms:30000}"
+    )
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime since = lastSync;
+        if (since == null) {
+            warmUp();
+            return;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            List<ServiceAccount> changed = replicaLagGuard.onPrimary(() -> readOnlyTransaction.execute(status ->
+                    serviceAccountRepository.findAllByUpdatedAtAfter(since.minus(overlap))));
+            changed.forEach(this::apply);
+            lastSync = startedAt;
+            if (!changed.isEmpty()) {
+                log.debug("Refreshed {} changed service accounts in the API key cache", changed.size());
+            }
+        } catch (DataAccessException e) {
+            log.warn("API key cache refresh failed: {}", e.getMessage());
+            return;
+        }
+
+        // The delta above has already evicted accounts deactivated since the last sync
+        if (lastFullSync.plus(fullRefreshInterval).isBefore(LocalDateTime.now())) {
+            reloadAll();
+        }
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            int count = loadAll();
+            lastSync = startedAt;
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            warmedEntries.set(count);
+            warmupMillis.set(millis);
+            log.info("Warmed API key cache with {} active service accounts in {} ms", count, millis);
+        } catch (DataAccessException e) {
+            log.warn("API key cache warm-up failed, starting cold: {}", e.getMessage());
+        }
+    }
+
+    private void reloadAll() {
+        try {
+            int count = loadAll();
+            log.debug("Re-put {} active service accounts in the API key cache", count);
+        } catch (DataAccessException e) {
+            log.warn("API key cache full refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Put every active account from the primary into the caches and return how many there were.
+     * Deactivated accounts are not read here and are left to the delta refresh.
+     */
+    private int loadAll() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        int count = replicaLagGuard.onPrimary(() -> readOnlyTransaction.execute(status -> {
+            int loaded = 0;
+            try (Stream<ServiceAccount> accounts = serviceAccountRepository.streamAllByActive(true)) {
+                Iterator<ServiceAccount> iterator = accounts.iterator();
+                while (iterator.hasNext()) {
+                    ServiceAccount account = iterator.next();
+                    // Keep the persistence context empty so memory stays flat however many accounts there are
+                    entityManager.detach(account);
+                    apply(account);
+                    loaded++;
+                }
+            }
+            return loaded;
+        }));
+        lastFullSync = startedAt;
+        return count;
+    }
+
+    /**
+     * Cache an active account under its key hash, or drop an inactive one
+     */
+    private void apply(ServiceAccount account) {
+        String apiKeyHash = account.getApiKeyHash();
+        // A lagging replica could hand back the row as it was before a recent write; leave those to the lookup path
+        boolean fresh = !replicaLagGuard.recentlyWritten(ReplicaLagGuard.apiKeyKey(apiKeyHash));
+        for (String cacheName : CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            if (!account.isActive()) {
+                cache.evict(apiKeyHash);
+            } else if (fresh) {
+                cache.put(apiKeyHash, account);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.bank.capp.services;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Broadcasts cache evictions to every node running the service.
+ *
+ * Evictions published inside a transaction take effect locally once it commits
+ * and reach the other nodes within the bus's bounded delivery delay, so caches
+ * can keep long TTLs without serving revoked credentials. The implementation is
+ * selected with {@code application.cache.invalidation.mode} ({@code local} or {@code jdbc}).
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Evict the given keys from the named cache on every node
+     */
+    void publish(String cacheName, Collection<String> keys);
+
+    /**
+     * Evict a single key from the named cache on every node
+     */
+    default void publish(String cacheName, String key) {
+        publish(cacheName, List.of(key));
+    }
+}
@@ -0,0 +1,164 @@
+package com.bank.capp.services;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.datasource.ReplicaLagGuard;
+import com.bank.capp.models.PrincipalType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Multi-node bus backed by the cache_invalidations table.
+ *
+ * Publishing inserts one row per key in the caller's transaction, so an eviction is
+ * broadcast exactly when the change that caused it commits. Every node polls the
+ * table by id and evicts locally, bounding staleness by the poll interval. Each
+ * delivered eviction is also recorded with the replica lag guard, so the reload
+ * that follows it reads the primary rather than a replica that may still lag.
+ *
+ * Sequence values can commit out of order, so the poll cursor only moves past ids
+ * below which every row has been applied; ids applied above it are remembered so
+ * each eviction runs once per node. A missing id holds the cursor for up to the
+ * lookback window, after which it is taken to be rolled back. Timestamps, taken
+ * from the clock at insert rather than at transaction start, are used only to purge.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "application.cache.invalidation.mode", havingValue = "jdbc")
+public class JdbcCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cache_invalidations (cache_name, cache_key) VALUES (?, ?)";
+    private static final String POLL_SQL =
+            "SELECT id, cache_name, cache_key FROM cache_invalidations WHERE id > ? ORDER BY id";
+    private static final String PURGE_SQL =
+            "DELETE FROM cache_invalidations WHERE created_at < ?";
+    private static final String HEAD_SQL =
+            "SELECT COALESCE(MAX(id), 0) FROM cache_invalidations";
+    private static final String NOW_SQL =
+            "SELECT CURRENT_TIMESTAMP";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocalCacheInvalidationBus localBus;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final long lookbackNanos;
+    private final Duration retention;
+    // Ids above the cursor that were already applied
+    private final TreeSet<Long> applied = new TreeSet<>();
+    // Every id up to the cursor was applied or given up on
+    private long cursor;
+    // When the cursor started waiting for a missing id, null while it is not waiting
+    private Long stalledSince;
+
+    public JdbcCacheInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            CacheManager cacheManager,
+            ReplicaLagGuard replicaLagGuard,
+            @Value("${application.cache.invalidation.lookback:60s}") Duration lookback,
+            @Value("${application.cache.invalidation.retention:10m}") Duration retention
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.localBus = new LocalCacheInvalidationBus(cacheManager);
+        this.replicaLagGuard = replicaLagGuard;
+        this.lookbackNanos = lookback.toNanos();
+        this.retention = retention;
+        this.cursor = jdbcTemplate.queryForObject(HEAD_SQL, Long.class);
+    }
+
+    @Override
+    public void publish(String cacheName, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            rows.add(new Object[] {cacheName, key});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        // Do not wait for the next poll on the node that made the change
+        localBus.publish(cacheName, keys);
+    }
+
+    /**
+     * Apply evictions published by any node since the last poll
+     */
+    @Scheduled(fixedDelayString = "${application.cache.invalidation.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        jdbcTemplate.query(POLL_SQL, rs -> {
+            if (applied.add(rs.getLong("id"))) {
+                deliver(rs.getString("cache_name"), rs.getString("cache_key"));
+            }
+        }, cursor);
+        advance(System.nanoTime());
+    }
+
+    private void deliver(String cacheName, String key) {
+        String lagKey = lagKey(cacheName, key);
+        if (lagKey != null) {
+            replicaLagGuard.recordWrite(lagKey);
+        }
+        localBus.evict(cacheName, List.of(key));
+    }
+
+    /**
+     * The replica lag key of the lookup that reloads an evicted entry, null if it does not read a replica
+     */
+    private static String lagKey(String cacheName, String key) {
+        return switch (cacheName) {
+            case ApiConstants.USER_CACHE, ApiConstants.USER_SNAPSHOT_CACHE -> ReplicaLagGuard.userKey(key);
+            case ApiConstants.API_KEY_CACHE, ApiConstants.API_KEY_SNAPSHOT_CACHE -> ReplicaLagGuard.apiKeyKey(key);
+            case ApiConstants.SERVICE_LOGIN_CACHE -> ReplicaLagGuard.serviceAccountKey(key);
+            case ApiConstants.SERVICE_QUOTA_CACHE ->
+                    ReplicaLagGuard.principalKey(PrincipalType.SERVICE_ACCOUNT, Long.valueOf(key));
+            case ApiConstants.REPLICA_WRITES -> key;
+            default -> null;
+        };
+    }
+
+    /**
+     * Move the cursor over applied ids, skipping a missing id once it has been waited on for the lookback window
+     */
+    private void advance(long now) {
+        while (!applied.isEmpty()) {
+            if (applied.first() == cursor + 1) {
+                cursor = applied.pollFirst();
+                stalledSince = null;
+            } else if (stalledSince == null) {
+                stalledSince = now;
+                return;
+            } else if (now - stalledSince < lookbackNanos) {
+                return;
+            } else {
+                log.debug("Cache invalidation ids {} to {} did not commit in time, skipping",
+                        cursor + 1, applied.first() - 1);
+                cursor = applied.first() - 1;
+                stalledSince = null;
+            }
+        }
+    }
+
+    /**
+     * Drop rows every node has had time to apply
+     */
+    @Scheduled(fixedDelayString = "${application.cache.invalidation.purge-interval-ms:300000}")
+    public synchronized void purge() {
+        LocalDateTime now = jdbcTemplate.queryForObject(NOW_SQL, LocalDateTime.class);
+        int purged = jdbcTemplate.update(PURGE_SQL, now.minus(retention));
+        if (purged > 0) {
+            log.debug("Purged {} applied cache invalidations", purged);
+        }
+    }
+}
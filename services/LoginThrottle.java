@@ -0,0 +1,70 @@
+package com.bank.capp.services;
+
+import com.bank.capp.exceptions.AuthFailure;
+import com.bank.capp.exceptions.TooManyAttemptsException;
+import com.bank.capp.security.StripedRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles login attempts by client IP and by username or service name.
+ * Checks run before the AuthenticationManager or password encoder is touched,
+ * so rejected attempts cost a few hash lookups instead of a bcrypt round.
+ *
+ * Successful logins use up the budget too; giving them back would let anyone holding one
+ * valid account interleave it with guesses and never hit the address limit. The address
+ * burst is therefore sized for the logins of a small office behind one NAT address.
+ */
+@Service
+public class LoginThrottle {
+
+    private final StripedRateLimiter ipLimiter;
+    private final StripedRateLimiter userLimiter;
+    private final StripedRateLimiter serviceLimiter;
+
+    public LoginThrottle(
+            @Value("${application.security.login-throttle.ip.burst:60}") int ipBurst,
+            @Value("${application.security.login-throttle.ip.refill-ms:1000}") long ipRefillMs,
+            @Value("${application.security.login-throttle.user.burst:5}") int userBurst,
+            @Value("${application.security.login-throttle.user.refill-ms:12000}") long userRefillMs,
+            @Value("${application.security.login-throttle.service.burst:10}") int serviceBurst,
+            @Value("${application.security.login-throttle.service.refill-ms:6000}") long serviceRefillMs,
+            @Value("${application.security.login-throttle.sketch-width:65536}") int width,
+            @Value("${application.security.login-throttle.sketch-depth:2}") int depth
+    ) {
+        this.ipLimiter = new StripedRateLimiter(ipBurst, Duration.ofMillis(ipRefillMs), width, depth);
+        this.userLimiter = new StripedRateLimiter(userBurst, Duration.ofMillis(userRefillMs), width, depth);
+        this.serviceLimiter = new StripedRateLimiter(serviceBurst, Duration.ofMillis(serviceRefillMs), width, depth);
+    }
+
+    /**
+     * Admit or reject a user login attempt
+     */
+    public void checkUserLogin(String username, String clientIp) {
+        check(ipLimiter, clientIp);
+        check(userLimiter, username == null ? null : username.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Admit or reject a service account login attempt
+     */
+    public void checkServiceLogin(String serviceName, String clientIp) {
+        check(ipLimiter, clientIp);
+        check(serviceLimiter, serviceName);
+    }
+
+    private void check(StripedRateLimiter limiter, String key) {
+        if (key == null || key.isEmpty()) {
+            return;
+        }
+        long waitNanos = limiter.tryAcquire(key);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            throw new TooManyAttemptsException(AuthFailure.TOO_MANY_LOGIN_ATTEMPTS, retryAfterSeconds);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.bank.capp.services;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.models.PrincipalType;
+import com.bank.capp.models.StoredToken;
+import com.bank.capp.repository.TokenStore;
+import com.bank.capp.security.Digests;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces refreshes that present the same refresh token.
+ *
+ * Concurrent refreshes wait for the one already running and share its response. For
+ * the reuse window after it finishes, the response is served again from a cache keyed
+ * by the SHA-256 digest of the token. Before a reused response is handed out, the token
+ * is checked for liveness in the token store and its principal against the cached
+ * principal state, so a logout, revocation or disabled account takes effect immediately.
+ * The reused access token was already valid, so reusing it grants nothing new. A zero
+ * window disables reuse but still coalesces concurrent refreshes, and waiting for the
+ * running refresh is bounded by the join timeout.
+ */
+@Slf4j
+@Component
+public class RefreshCoalescer {
+
+    private final ConcurrentMap<String, CompletableFuture<Issued>> inFlight = new ConcurrentHashMap<>();
+
+    private final TokenStore tokenStore;
+    private final CacheManager cacheManager;
+    private final Duration reuseWindow;
+    private final long joinTimeoutNanos;
+
+    public RefreshCoalescer(
+            TokenStore tokenStore,
+            CacheManager cacheManager,
+            @Value("${application.security.refresh-reuse.window:5s}") Duration reuseWindow,
+            @Value("${application.security.refresh-reuse.join-timeout:${application.resilience.auth-lookup.timeout:500ms}}")
+            Duration joinTimeout
+    ) {
+        this.tokenStore = tokenStore;
+        this.cacheManager = cacheManager;
+        this.reuseWindow = reuseWindow;
+        this.joinTimeoutNanos = joinTimeout.toNanos();
+    }
+
+    /**
+     * Run the refresh unless one for the same token is running or has just finished.
+     * A response is only reused while {@code principalActive} accepts it together with the
+     * live stored token; it is then passed through {@code aged} with the time since it was issued.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T refresh(
+            PrincipalType principalType,
+            String refreshToken,
+            Supplier<T> refresh,
+            BiPredicate<T, StoredToken> principalActive,
+            BiFunction<T, Duration, T> aged
+    ) {
+        String key = principalType.name() + ':' + Digests.sha256Hex(refreshToken);
+        Cache cache = reuseWindow.isZero() ? null : cacheManager.getCache(ApiConstants.REFRESH_RESPONSE_CACHE);
+
+        if (cache != null) {
+            Issued issued = cache.get(key, Issued.class);
+            if (issued != null) {
+                T response = (T) issued.response();
+                boolean reusable = tokenStore.findByToken(principalType, refreshToken)
+                        .filter(token -> !token.isRevoked() && !token.isExpired())
+                        .filter(token -> principalActive.test(response, token))
+                        .isPresent();
+                if (reusable) {
+                    log.debug("Refresh served from the reuse window");
+                    return aged.apply(response, Duration.between(issued.issuedAt(), Instant.now()));
+                }
+                cache.evict(key);
+            }
+        }
+
+        CompletableFuture<Issued> mine = new CompletableFuture<>();
+        CompletableFuture<Issued> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            log.debug("Refresh joined one already in flight");
+            return (T) await(running).response();
+        }
+
+        try {
+            Issued issued = new Issued(refresh.get(), Instant.now());
+            if (cache != null) {
+                cache.put(key, issued);
+            }
+            mine.complete(issued);
+            return (T) issued.response();
+        } catch (RuntimeException e) {
+            // Failures are shared with the waiters but never cached
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Issued await(CompletableFuture<Issued> running) {
+        try {
+            return running.get(joinTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // The running refresh is left to finish for its own caller
+            throw new QueryTimeoutException("Timed out waiting for a refresh already in flight", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted waiting for a refresh already in flight", e);
+        }
+    }
+
+    /**
+     * A refresh response and when it was issued
+     */
+    private record Issued(Object response, Instant issuedAt) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.bank.capp.services;
+
+import com.bank.capp.repository.TokenStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefreshTokenPurgeJob {
+
+    private final TokenStore tokenStore;
+
+    /**
+     * Periodically remove expired refresh tokens from the token store
+     */
+    @Scheduled(fixedDelayString = "${application.security.token-store.purge-interval-ms:3600000}")
+    public void purgeExpiredTokens() {
+        int purged = tokenStore.purgeExpired();
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package com.bank.capp.services;
 
 import com.bank.capp.constants.ApiConstants;
-import com.bank.capp.constants.SecurityConstants;
+import com.bank.capp.datasource.ReplicaLagGuard;
+import com.bank.capp.exceptions.AuthFailure;
+import com.bank.capp.exceptions.AuthenticationFailureException;
+import com.bank.capp.jfr.RefreshTokenLookupEvent;
+import com.bank.capp.metrics.AuthMetrics;
+import com.bank.capp.metrics.AuthMetrics.SessionOperation;
 import com.bank.capp.models.*;
-import com.bank.capp.repository.ServiceAccountRefreshTokenRepository;
 import com.bank.capp.repository.ServiceAccountRepository;
+import com.bank.capp.repository.TokenStore;
+import com.bank.capp.security.ApiKeyHasher;
+import com.bank.capp.security.Authorities;
+import com.bank.capp.security.ServiceQuotaLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -22,87 +35,198 @@ import java.util.Map;
 public class ServiceAccountAuthenticationService {
 
     private final ServiceAccountRepository serviceAccountRepository;
-    private final ServiceAccountRefreshTokenRepository refreshTokenRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final TokenStore tokenStore;
+    private final ApiKeyHasher apiKeyHasher;
     private final JwtService jwtService;
+    private final AuthMetrics authMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final CacheManager cacheManager;
+    private final RefreshCoalescer refreshCoalescer;
+    private final ServiceQuotaLimiter serviceQuotaLimiter;
+
+    @Value("${application.security.service-login-reuse.enabled:false}")
+    private boolean loginReuseEnabled;
+
+    @Value("${application.security.service-login-reuse.min-remaining:5m}")
+    private Duration loginReuseMinRemaining;
 
     /**
-     * Authenticate service account with API key and return JWT tokens
+     * Authenticate service account with API key and return JWT tokens.
+     * The account lookup may be served by a replica; only the token rotation runs on the primary.
      */
-    @Transactional
     public ServiceAccountAuthenticationResponse authenticate(ServiceAccountLoginRequest request) {
+        return authMetrics.timeSession(SessionOperation.LOGIN, PrincipalType.SERVICE_ACCOUNT, () -> login(request));
+    }
+
+    /**
+     * Verify the API key, replace the account's refresh tokens and issue a new token pair
+     */
+    private ServiceAccountAuthenticationResponse login(ServiceAccountLoginRequest request) {
         String serviceName = request.getServiceName();
         String apiKey = request.getApiKey();
 
         log.info("Service account login attempt for: {}", serviceName);
 
+        if (loginReuseEnabled) {
+            ServiceAccountAuthenticationResponse reused = reuseLogin(serviceName, apiKey);
+            if (reused != null) {
+                return reused;
+            }
+        }
+
         // Find service account by name
-        ServiceAccount serviceAccount = serviceAccountRepository.findByServiceName(serviceName)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid service credentials"));
+        ServiceAccount serviceAccount = replicaLagGuard.read(
+                        ReplicaLagGuard.serviceAccountKey(serviceName),
+                        () -> serviceAccountRepository.findByServiceName(serviceName))
+                .orElseThrow(() -> new AuthenticationFailureException(AuthFailure.INVALID_SERVICE_CREDENTIALS));
 
         // Check if service account is active
         if (!serviceAccount.isActive()) {
-            log.warn("Inactive service account login attempt: {}", serviceName);
-            throw new IllegalArgumentException("Service account is inactive");
+            log.debug("Inactive service account login attempt: {}", serviceName);
+            throw new AuthenticationFailureException(AuthFailure.SERVICE_ACCOUNT_INACTIVE);
         }
 
         // Validate API key
-        if (!passwordEncoder.matches(apiKey, serviceAccount.getApiKeyHash())) {
-            log.warn("Invalid API key for service: {}", serviceName);
-            throw new IllegalArgumentException("Invalid service credentials");
+        if (!apiKeyHasher.matches(apiKey, serviceAccount.getApiKeyHash())) {
+            log.debug("Invalid API key for service: {}", serviceName);
+            throw new AuthenticationFailureException(AuthFailure.INVALID_SERVICE_CREDENTIALS);
         }
 
-        // Update last used timestamp
-        serviceAccount.setLastUsedAt(LocalDateTime.now());
-        serviceAccountRepository.save(serviceAccount);
-
         // Generate JWT tokens with service account claims
         Map<String, Object> claims = new HashMap<>();
         claims.put("service_name", serviceName);
         claims.put("service_id", serviceAccount.getId());
         claims.put("type", "service");
+        claims.put("scope", Scope.format(serviceAccount.getScopes()));
 
         // Create a pseudo UserDetails for JWT generation
         ServiceAccountUserDetails userDetails = new ServiceAccountUserDetails(serviceAccount);
         
-        String accessToken = jwtService.generateToken(claims, userDetails);
-        String refreshToken = jwtService.generateRefreshToken(userDetails);
-
-        // Revoke old refresh tokens and save new one
-        revokeAllServiceAccountTokens(serviceAccount);
-        saveRefreshToken(serviceAccount, refreshToken);
+        TokenPair tokens = jwtService.generateTokenPair(claims, userDetails);
+
+        boolean upgraded = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            // Update last used timestamp without merging an entity that may have come from a replica
+            serviceAccountRepository.updateLastUsedAt(serviceAccount.getId(), LocalDateTime.now());
+
+            // Revoke old refresh tokens and save new one
+            revokeAllServiceAccountTokens(serviceAccount);
+            saveRefreshToken(serviceAccount, tokens.getRefreshToken());
+            return upgradeLegacyHash(serviceAccount, apiKey);
+        }));
+        if (upgraded) {
+            replicaLagGuard.recordWrite(ReplicaLagGuard.serviceAccountKey(serviceName));
+            replicaLagGuard.recordWrite(ReplicaLagGuard.apiKeyKey(apiKeyHasher.hash(apiKey)));
+            log.info("Replaced bcrypt API key hash of service account {}", serviceName);
+        }
 
         log.info("Service account authenticated successfully: {}", serviceName);
 
-        return buildAuthenticationResponse(serviceAccount, accessToken, refreshToken);
+        ServiceAccountAuthenticationResponse response =
+                buildAuthenticationResponse(serviceAccount, tokens.getAccessToken(), tokens.getRefreshToken());
+        if (loginReuseEnabled) {
+            rememberLogin(serviceName, apiKey, response);
+        }
+        return response;
     }
 
     /**
-     * Refresh access token using refresh token
+     * Return the token pair of this node's last login of the service if the same API key is
+     * presented, the access token has at least min-remaining left and its refresh token is
+     * still live. Rotating or revoking the key evicts the entry through the invalidation bus;
+     * the refresh token check covers logouts and logins made on other nodes.
+     */
+    private ServiceAccountAuthenticationResponse reuseLogin(String serviceName, String apiKey) {
+        Cache cache = cacheManager.getCache(ApiConstants.SERVICE_LOGIN_CACHE);
+        ServiceLogin login = cache != null ? cache.get(serviceName, ServiceLogin.class) : null;
+        if (login == null) {
+            return null;
+        }
+
+        long remainingSeconds = Duration.between(Instant.now(), login.accessTokenExpiresAt()).getSeconds();
+        if (remainingSeconds < loginReuseMinRemaining.getSeconds()
+                || !apiKeyHasher.matches(apiKey, login.apiKeyDigest())) {
+            return null;
+        }
+
+        String refreshToken = login.response().getRefreshToken();
+        boolean live = tokenStore.findByToken(PrincipalType.SERVICE_ACCOUNT, refreshToken)
+                .filter(token -> !token.isRevoked() && !token.isExpired())
+                .isPresent();
+        if (!live) {
+            cache.evict(serviceName);
+            return null;
+        }
+
+        log.info("Service account login reused current tokens: {}", serviceName);
+
+        return ServiceAccountAuthenticationResponse.builder()
+                .accessToken(login.response().getAccessToken())
+                .refreshToken(refreshToken)
+                .tokenType(login.response().getTokenType())
+                .expiresIn(remainingSeconds)
+                .serviceName(serviceName)
+                .build();
+    }
+
+    /**
+     * Cache the issued pair with a digest of the API key it was issued for
+     */
+    private void rememberLogin(String serviceName, String apiKey, ServiceAccountAuthenticationResponse response) {
+        Cache cache = cacheManager.getCache(ApiConstants.SERVICE_LOGIN_CACHE);
+        if (cache != null) {
+            Instant accessTokenExpiresAt = Instant.now().plusSeconds(response.getExpiresIn());
+            cache.put(serviceName, new ServiceLogin(apiKeyHasher.hash(apiKey), response, accessTokenExpiresAt));
+        }
+    }
+
+    /**
+     * Refresh access token using refresh token.
+     * Only reads, each in its own read-only transaction so replicas can serve them.
+     * Retries with the same refresh token are coalesced and reuse the issued access token.
      */
-    @Transactional
     public ServiceAccountAuthenticationResponse refreshToken(ServiceAccountRefreshRequest request) {
+        return authMetrics.timeSession(SessionOperation.REFRESH, PrincipalType.SERVICE_ACCOUNT,
+                () -> refreshCoalescer.refresh(PrincipalType.SERVICE_ACCOUNT, request.getRefreshToken(),
+                        () -> refresh(request),
+                        // The cached quota is null once the account is revoked or gone
+                        (response, token) -> serviceQuotaLimiter.quotaFor(token.getPrincipalId()) != null,
+                        this::aged));
+    }
+
+    /**
+     * Check the refresh token against the token store and issue a new access token
+     */
+    private ServiceAccountAuthenticationResponse refresh(ServiceAccountRefreshRequest request) {
         String requestRefreshToken = request.getRefreshToken();
 
         // Find refresh token
-        ServiceAccountRefreshToken refreshToken = refreshTokenRepository.findByToken(requestRefreshToken)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+        RefreshTokenLookupEvent lookup = new RefreshTokenLookupEvent();
+        lookup.begin();
+        Optional<StoredToken> storedToken = tokenStore.findByToken(PrincipalType.SERVICE_ACCOUNT, requestRefreshToken);
+        lookup.complete(PrincipalType.SERVICE_ACCOUNT, storedToken.isPresent());
+
+        StoredToken refreshToken = storedToken
+                .orElseThrow(() -> new AuthenticationFailureException(AuthFailure.INVALID_REFRESH_TOKEN));
 
         // Validate refresh token
         if (refreshToken.isRevoked()) {
-            throw new IllegalArgumentException("Refresh token has been revoked");
+            throw new AuthenticationFailureException(AuthFailure.REFRESH_TOKEN_REVOKED);
         }
 
         if (refreshToken.isExpired()) {
-            throw new IllegalArgumentException("Refresh token has expired");
+            throw new AuthenticationFailureException(AuthFailure.REFRESH_TOKEN_EXPIRED);
         }
 
-        // Get service account
-        ServiceAccount serviceAccount = refreshToken.getServiceAccount();
+        // Get service account; it may have been created on another node moments ago
+        ServiceAccount serviceAccount = replicaLagGuard.readExisting(
+                        ReplicaLagGuard.principalKey(PrincipalType.SERVICE_ACCOUNT, refreshToken.getPrincipalId()),
+                        () -> serviceAccountRepository.findById(refreshToken.getPrincipalId()))
+                .orElseThrow(() -> new AuthenticationFailureException(AuthFailure.INVALID_REFRESH_TOKEN));
 
         // Check if service account is still active
         if (!serviceAccount.isActive()) {
-            throw new IllegalArgumentException("Service account is inactive");
+            throw new AuthenticationFailureException(AuthFailure.SERVICE_ACCOUNT_INACTIVE);
         }
 
         // Generate new access token
@@ -110,6 +234,7 @@ public class ServiceAccountAuthenticationService {
         claims.put("service_name", serviceAccount.getServiceName());
         claims.put("service_id", serviceAccount.getId());
         claims.put("type", "service");
+        claims.put("scope", Scope.format(serviceAccount.getScopes()));
 
         ServiceAccountUserDetails userDetails = new ServiceAccountUserDetails(serviceAccount);
         String accessToken = jwtService.generateToken(claims, userDetails);
@@ -124,38 +249,61 @@ public class ServiceAccountAuthenticationService {
      */
     @Transactional
     public void logout(ServiceAccountRefreshRequest request) {
-        ServiceAccountRefreshToken refreshToken = refreshTokenRepository.findByToken(request.getRefreshToken())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+        authMetrics.timeSession(SessionOperation.LOGOUT, PrincipalType.SERVICE_ACCOUNT, () -> revokeRefreshToken(request));
+    }
 
-        refreshToken.setRevoked(true);
-        refreshTokenRepository.save(refreshToken);
+    /**
+     * Revoke a single service account refresh token
+     */
+    private void revokeRefreshToken(ServiceAccountRefreshRequest request) {
+        if (!tokenStore.revoke(PrincipalType.SERVICE_ACCOUNT, request.getRefreshToken())) {
+            throw new AuthenticationFailureException(AuthFailure.INVALID_REFRESH_TOKEN);
+        }
 
-        log.info("Service account logged out: {}", refreshToken.getServiceAccount().getServiceName());
+        log.info("Service account refresh token revoked on logout");
     }
 
     /**
-     * Save refresh token to database
+     * Save refresh token to the token store
      */
     private void saveRefreshToken(ServiceAccount serviceAccount, String token) {
         long refreshExpirationSeconds = 604800; // 7 days
-        ServiceAccountRefreshToken refreshToken = ServiceAccountRefreshToken.builder()
-                .serviceAccount(serviceAccount)
-                .token(token)
-                .expiryDate(LocalDateTime.now().plusSeconds(refreshExpirationSeconds))
-                .revoked(false)
-                .build();
+        tokenStore.save(PrincipalType.SERVICE_ACCOUNT, serviceAccount.getId(), token,
+                LocalDateTime.now().plusSeconds(refreshExpirationSeconds));
+    }
 
-        refreshTokenRepository.save(refreshToken);
+    /**
+     * Replace a bcrypt key hash with the SHA-256 digest now that the key is known to match,
+     * so the key also works for X-API-Key requests. Returns whether the row was changed.
+     */
+    private boolean upgradeLegacyHash(ServiceAccount serviceAccount, String apiKey) {
+        String storedHash = serviceAccount.getApiKeyHash();
+        if (!apiKeyHasher.isLegacy(storedHash)) {
+            return false;
+        }
+        // A rotation that committed meanwhile has already replaced the hash; leave it alone
+        return serviceAccountRepository.replaceApiKeyHash(
+                serviceAccount.getId(), storedHash, apiKeyHasher.hash(apiKey), LocalDateTime.now()) > 0;
     }
 
     /**
      * Revoke all refresh tokens for a service account
      */
     private void revokeAllServiceAccountTokens(ServiceAccount serviceAccount) {
-        refreshTokenRepository.findByServiceAccount(serviceAccount).ifPresent(token -> {
-            token.setRevoked(true);
-            refreshTokenRepository.save(token);
-        });
+        tokenStore.revokeAll(PrincipalType.SERVICE_ACCOUNT, serviceAccount.getId());
+    }
+
+    /**
+     * Copy of a reused refresh response with the time since it was issued taken off its lifetime
+     */
+    private ServiceAccountAuthenticationResponse aged(ServiceAccountAuthenticationResponse response, Duration age) {
+        return ServiceAccountAuthenticationResponse.builder()
+                .accessToken(response.getAccessToken())
+                .refreshToken(response.getRefreshToken())
+                .tokenType(response.getTokenType())
+                .expiresIn(Math.max(0, response.getExpiresIn() - age.getSeconds()))
+                .serviceName(response.getServiceName())
+                .build();
     }
 
     /**
@@ -175,6 +323,16 @@ public class ServiceAccountAuthenticationService {
                 .build();
     }
 
+    /**
+     * Last token pair issued to a service on this node
+     */
+    private record ServiceLogin(
+            String apiKeyDigest,
+            ServiceAccountAuthenticationResponse response,
+            Instant accessTokenExpiresAt
+    ) {
+    }
+
     /**
      * Inner class to adapt ServiceAccount to UserDetails for JWT generation
      */
@@ -197,7 +355,7 @@ public class ServiceAccountAuthenticationService {
 
         @Override
         public java.util.Collection<? extends org.springframework.security.core.GrantedAuthority> getAuthorities() {
-            return List.of(new org.springframework.security.core.authority.SimpleGrantedAuthority(SecurityConstants.ROLE_SERVICE));
+            return Authorities.SERVICE_AUTHORITIES;
         }
 
         @Override
@@ -0,0 +1,290 @@
+package com.bank.capp.services;
+
+import com.bank.capp.constants.ApiConstants;
+import com.bank.capp.models.RegisterRequest;
+import com.bank.capp.models.Role;
+import com.bank.capp.models.UserImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Streams users from a CSV or JSON Lines file into the users table.
+ *
+ * Rows are read and validated one at a time, passwords of each chunk are hashed
+ * in parallel on a dedicated bounded pool, so an import never occupies the common
+ * ForkJoinPool, and the chunk is written with a single JDBC batch that
+ * skips rows hitting a unique constraint. A result is reported for every row as
+ * soon as its chunk is written, so memory stays bounded by the batch size.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    public enum Format {
+        CSV,
+        JSON_LINES
+    }
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (username, email, password, first_name, last_name, role, enabled, "
+                    + "account_non_expired, account_non_locked, credentials_non_expired, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, true, true, true, true, CURRENT_TIMESTAMP) "
+                    + "ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final ThreadPoolExecutor hashExecutor;
+
+    public UserImportService(
+            JdbcTemplate jdbcTemplate,
+            PasswordEncoder passwordEncoder,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${application.users.import.batch-size:500}") int batchSize,
+            @Value("${application.users.import.hash-threads:0}") int hashThreads
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+
+        // Half the cores by default, leaving the rest to logins while an import runs
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(batchSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Concurrent imports beyond the queue hash on their own request thread
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.hashExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
+    /**
+     * Import users from the given stream, reporting one result per data row
+     */
+    public void importUsers(InputStream input, Format format, Consumer<UserImportResult> results) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = null;
+        if (format == Format.CSV) {
+            columns = readCsvHeader(reader.readLine());
+            if (columns == null) {
+                results.accept(result(1, null, UserImportResult.Status.INVALID,
+                        "CSV header must include username, email and password columns"));
+                return;
+            }
+        }
+
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+        int lineNumber = format == Format.CSV ? 1 : 0;
+        int created = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            RegisterRequest request;
+            try {
+                request = format == Format.CSV
+                        ? parseCsvRow(line, columns)
+                        : objectMapper.readValue(line, RegisterRequest.class);
+            } catch (IOException | IllegalArgumentException e) {
+                results.accept(result(lineNumber, null, UserImportResult.Status.INVALID, "Malformed row"));
+                continue;
+            }
+
+            Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results.accept(result(lineNumber, request.getUsername(), UserImportResult.Status.INVALID, message));
+                continue;
+            }
+
+            chunk.add(new ImportRow(lineNumber, request));
+            if (chunk.size() == batchSize) {
+                created += writeChunk(chunk, results);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            created += writeChunk(chunk, results);
+        }
+
+        log.info("Bulk user import finished: {} users created", created);
+    }
+
+    /**
+     * Hash passwords in parallel and insert the chunk as one JDBC batch
+     */
+    private int writeChunk(List<ImportRow> chunk, Consumer<UserImportResult> results) {
+        List<String> passwordHashes = hashPasswords(chunk);
+
+        int[] updateCounts;
+        try {
+            updateCounts = jdbcTemplate.batchUpdate(INSERT_USER_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    RegisterRequest request = chunk.get(i).request();
+                    ps.setString(1, request.getUsername());
+                    ps.setString(2, request.getEmail());
+                    ps.setString(3, passwordHashes.get(i));
+                    ps.setString(4, request.getFirstName());
+                    ps.setString(5, request.getLastName());
+                    ps.setString(6, Role.USER.name());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return chunk.size();
+                }
+            });
+        } catch (DataAccessException e) {
+            log.error("Bulk user import batch failed: {}", e.getMostSpecificCause().getMessage());
+            chunk.forEach(row -> results.accept(result(row.line(), row.request().getUsername(),
+                    UserImportResult.Status.FAILED, "Batch insert failed")));
+            return 0;
+        }
+
+        int created = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportRow row = chunk.get(i);
+            // A count of 0 means ON CONFLICT skipped the row; drivers that rewrite
+            // batches report SUCCESS_NO_INFO (-2) and are treated as created
+            if (updateCounts[i] == 0) {
+                results.accept(result(row.line(), row.request().getUsername(),
+                        UserImportResult.Status.CONFLICT, ApiConstants.USER_ALREADY_EXISTS));
+            } else {
+                results.accept(result(row.line(), row.request().getUsername(), UserImportResult.Status.CREATED, null));
+                created++;
+            }
+        }
+        return created;
+    }
+
+    private List<String> hashPasswords(List<ImportRow> chunk) {
+        List<Future<String>> hashes = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            hashes.add(hashExecutor.submit(() -> passwordEncoder.encode(row.request().getPassword())));
+        }
+
+        List<String> passwordHashes = new ArrayList<>(chunk.size());
+        try {
+            for (Future<String> hash : hashes) {
+                passwordHashes.add(hash.get());
+            }
+        } catch (ExecutionException e) {
+            hashes.forEach(hash -> hash.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            hashes.forEach(hash -> hash.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        }
+        return passwordHashes;
+    }
+
+    private Map<String, Integer> readCsvHeader(String header) {
+        if (header == null) {
+            return null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        String[] names = header.split(",", -1);
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("username", "email", "password")) {
+            if (!columns.containsKey(required)) {
+                return null;
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Parse a plain comma separated row; quoted fields are not supported
+     */
+    private RegisterRequest parseCsvRow(String line, Map<String, Integer> columns) {
+        String[] fields = line.split(",", -1);
+        return RegisterRequest.builder()
+                .username(field(fields, columns, "username"))
+                .email(field(fields, columns, "email"))
+                .password(field(fields, columns, "password"))
+                .firstName(field(fields, columns, "firstname"))
+                .lastName(field(fields, columns, "lastname"))
+                .build();
+    }
+
+    private String field(String[] fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.length) {
+            return null;
+        }
+        String value = fields[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private UserImportResult result(int line, String username, UserImportResult.Status status, String message) {
+        return UserImportResult.builder()
+                .line(line)
+                .username(username)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    private record ImportRow(int line, RegisterRequest request) {
+    }
+}